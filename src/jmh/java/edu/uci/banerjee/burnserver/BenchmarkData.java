@@ -0,0 +1,111 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import org.flywaydb.core.Flyway;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/** Synthetic California burn data and an isolated application context for the benchmarks. */
+public final class BenchmarkData {
+  public static final String[] SOURCES = {"CALFIRE", "USFS", "NPS", "BLM"};
+  public static final String[] COUNTIES = {
+    "Butte", "Modesto", "Nevada", "Placer", "Plumas", "Shasta", "Sierra", "Tehama", "Tulare", "Yuba"
+  };
+  public static final String[] BURN_TYPES = {"Broadcast", "Hand Pile", "Machine Pile"};
+  public static final String[] OWNERS = {"Private", "Federal", "State", "Local"};
+
+  private BenchmarkData() {}
+
+  /** {@code rows} fires spread over California, the same for every run. */
+  public static List<Fire> fires(int rows) {
+    final var random = new Random(42);
+    final var fires = new ArrayList<Fire>(rows);
+    for (int i = 0; i < rows; i++) fires.add(fire(random, i));
+    return fires;
+  }
+
+  /** The same fires as {@link #fires(int)} in the upload CSV layout. */
+  public static String csv(int rows) {
+    final var csv =
+        new StringBuilder(
+            "name,acres,latitude,longitude,burn_type,treatment_type,county_unit_ID,county,"
+                + "source,escaped,date\n");
+    for (Fire fire : fires(rows)) {
+      csv.append(fire.getName()).append(',');
+      csv.append(fire.getAcres()).append(',');
+      csv.append(fire.getLatitude()).append(',');
+      csv.append(fire.getLongitude()).append(',');
+      csv.append(fire.getBurnType()).append(',');
+      csv.append(',');
+      csv.append(fire.getCountyUnitId()).append(',');
+      csv.append(fire.getCounty()).append(',');
+      csv.append(fire.getSource()).append(',');
+      csv.append(fire.getEscaped()).append(',');
+      csv.append(String.format("%04d-%02d-%02d", fire.getYear(), fire.getMonth(), fire.getDay()));
+      csv.append('\n');
+    }
+    return csv.toString();
+  }
+
+  /**
+   * Starts the application without a web server against its own in-memory H2 database, with
+   * remote ownership lookups disabled so nothing leaves the machine. When the system property
+   * {@code burn.benchmark.postgres.url} is set, it runs against that PostgreSQL database instead,
+   * which has to be a scratch database since it is emptied first. Either way the schema is built
+   * by the Flyway migrations, as in production.
+   */
+  public static ConfigurableApplicationContext start(String database) {
+    final var postgresUrl = System.getProperty("burn.benchmark.postgres.url", "");
+    final var args = new ArrayList<String>();
+    if (postgresUrl.isEmpty()) {
+      args.add("--spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+    } else {
+      final var username = System.getProperty("burn.benchmark.postgres.username", "postgres");
+      final var password = System.getProperty("burn.benchmark.postgres.password", "");
+      // Rows of an earlier run would collide with the natural keys of this one.
+      Flyway.configure().dataSource(postgresUrl, username, password).load().clean();
+      args.add("--spring.datasource.url=" + postgresUrl);
+      args.add("--spring.datasource.driverClassName=org.postgresql.Driver");
+      args.add("--spring.datasource.username=" + username);
+      args.add("--spring.datasource.password=" + password);
+      args.add("--spring.jpa.database-platform=org.hibernate.dialect.PostgreSQL10Dialect");
+    }
+    args.addAll(
+        List.of(
+            "--spring.main.banner-mode=off",
+            "--logging.level.root=WARN",
+            "--burn.ownership.remote-fallback=false",
+            "--burn.ownership.cache.file=",
+            "--burn.statistics.cube.enabled=false",
+            "--burn.query.columnar.enabled=true"));
+    // Passed as arguments so they take precedence over application.properties.
+    return new SpringApplicationBuilder(BurnServerApplication.class)
+        .web(WebApplicationType.NONE)
+        .run(args.toArray(new String[0]));
+  }
+
+  private static Fire fire(Random random, int i) {
+    final var county = COUNTIES[random.nextInt(COUNTIES.length)];
+    return new Fire(
+        Math.round(random.nextDouble() * 5000) / 10.0,
+        BURN_TYPES[random.nextInt(BURN_TYPES.length)],
+        null,
+        county.substring(0, 3).toUpperCase(),
+        county,
+        32.5 + random.nextDouble() * 9.5,
+        -124.4 + random.nextDouble() * 10.3,
+        "burn-" + i,
+        SOURCES[random.nextInt(SOURCES.length)],
+        1990 + random.nextInt(32),
+        1 + random.nextInt(12),
+        1 + random.nextInt(28),
+        OWNERS[random.nextInt(OWNERS.length)],
+        null,
+        random.nextInt(50) == 0);
+  }
+}
@@ -0,0 +1,120 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.FireFilter;
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import edu.uci.banerjee.burnserver.model.Statistics;
+import edu.uci.banerjee.burnserver.services.ColumnarFireStore;
+import edu.uci.banerjee.burnserver.services.FireQueryService;
+import edu.uci.banerjee.burnserver.services.FireWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Latency of the /query, /statistics and tile point paths over {@code rows} fires in H2: the JPA
+ * queries against the same filters answered by {@link ColumnarFireStore}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class QueryBenchmark {
+  private static final int SEED_CHUNK = 10_000;
+
+  @Param({"10000", "100000", "500000", "1000000"})
+  public int rows;
+
+  private ConfigurableApplicationContext context;
+  private FiresRepo repo;
+  private ColumnarFireStore columnarStore;
+  private FireQueryService fireQueryService;
+  private final FireFilter countyYears = new FireFilter();
+  private final FireFilter boundingBox = new FireFilter();
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkData.start("query-" + rows);
+    repo = context.getBean(FiresRepo.class);
+    columnarStore = context.getBean(ColumnarFireStore.class);
+    fireQueryService = context.getBean(FireQueryService.class);
+
+    final var writer = context.getBean(FireWriter.class);
+    final var fires = BenchmarkData.fires(rows);
+    for (int from = 0; from < rows; from += SEED_CHUNK)
+      writer.saveAll(fires.subList(from, Math.min(rows, from + SEED_CHUNK)));
+    // Seeding bypasses FiresSavedEvent, so reload the columnar copy from the table.
+    columnarStore.load();
+
+    countyYears.setSource("CALFIRE");
+    countyYears.setCounty("Pl");
+    countyYears.setStartYear(2000);
+    countyYears.setEndYear(2010);
+
+    boundingBox.setWest(-121.5);
+    boundingBox.setSouth(38.5);
+    boundingBox.setEast(-120.5);
+    boundingBox.setNorth(39.5);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<?> findByAllParams() {
+    return repo.findByAllParams(
+        "CALFIRE", null, "Pl", null, null, null, null, 2000, 2010, null, null, null, null);
+  }
+
+  @Benchmark
+  public List<?> findByBoundingBox() {
+    return repo.findByFilter(boundingBox);
+  }
+
+  @Benchmark
+  public long pointsInBoundingBox() {
+    final long[] points = new long[1];
+    fireQueryService.forEachPoint(-121.5, 38.5, -120.5, 39.5, point -> points[0]++);
+    return points[0];
+  }
+
+  @Benchmark
+  public Statistics filterStatistics() {
+    return Statistics.of(repo.filterStatistics(countyYears));
+  }
+
+  @Benchmark
+  public Statistics unfilteredStatistics() {
+    return Statistics.of(repo.filterStatistics(new FireFilter()));
+  }
+
+  @Benchmark
+  public List<?> columnarQuery() {
+    return columnarStore.query(countyYears, null, null).orElseThrow();
+  }
+
+  @Benchmark
+  public List<?> columnarBoundingBox() {
+    return columnarStore.query(boundingBox, null, null).orElseThrow();
+  }
+
+  @Benchmark
+  public Statistics columnarStatistics() {
+    return columnarStore.statistics(countyYears).orElseThrow();
+  }
+
+  @Benchmark
+  public Statistics columnarUnfilteredStatistics() {
+    return columnarStore.statistics(new FireFilter()).orElseThrow();
+  }
+}
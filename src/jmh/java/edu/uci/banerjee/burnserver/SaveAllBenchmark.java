@@ -0,0 +1,71 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.services.FireWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Rows per second through {@link FireWriter#saveAll}, one ingest chunk per invocation. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class SaveAllBenchmark {
+  private static final int CHUNK = 1000;
+
+  private ConfigurableApplicationContext context;
+  private FireWriter writer;
+  private List<Fire> template;
+  private int invocation;
+
+  @Setup
+  public void setUp() {
+    context = BenchmarkData.start("save-all");
+    writer = context.getBean(FireWriter.class);
+    template = BenchmarkData.fires(CHUNK);
+  }
+
+  @TearDown
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(CHUNK)
+  public void saveAll() {
+    // Fresh entities each time, since saving assigns their ids, and fresh names, since a fire with
+    // the natural key of a stored one would be an update instead of an insert.
+    invocation++;
+    final var fires = new ArrayList<Fire>(CHUNK);
+    for (Fire fire : template)
+      fires.add(
+          new Fire(
+              fire.getAcres(),
+              fire.getBurnType(),
+              fire.getTreatmentType(),
+              fire.getCountyUnitId(),
+              fire.getCounty(),
+              fire.getLatitude(),
+              fire.getLongitude(),
+              fire.getName() + "-" + invocation,
+              fire.getSource(),
+              fire.getYear(),
+              fire.getMonth(),
+              fire.getDay(),
+              fire.getOwner(),
+              fire.getSeverity(),
+              fire.getEscaped()));
+    writer.saveAll(fires);
+  }
+}
@@ -0,0 +1,51 @@
+package edu.uci.banerjee.burnserver.services;
+
+import com.univocity.parsers.common.record.Record;
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import edu.uci.banerjee.burnserver.BenchmarkData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/** Record to {@code Fire} conversion in {@link DataIngestService}. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CreateFireBenchmark {
+  private static final int ROWS = 10_000;
+
+  private DataIngestService ingest;
+  private List<Record> records;
+  private FireColumns columns;
+
+  @Setup
+  public void setUp() throws Exception {
+    // Owners are assigned per chunk after conversion, so no ownership service is needed.
+    ingest =
+        new DataIngestService(null, null, null, null, null, null, ROWS, new SimpleMeterRegistry());
+
+    final var settings = new CsvParserSettings();
+    settings.setHeaderExtractionEnabled(true);
+    records =
+        new CsvParser(settings).parseAllRecords(new StringReader(BenchmarkData.csv(ROWS)));
+    columns = FireColumns.of(records.get(0).getMetaData());
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ROWS)
+  public void createFire(Blackhole blackhole) {
+    for (Record record : records) blackhole.consume(ingest.createFire(record, columns));
+  }
+}
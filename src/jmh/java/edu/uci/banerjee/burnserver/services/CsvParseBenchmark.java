@@ -0,0 +1,39 @@
+package edu.uci.banerjee.burnserver.services;
+
+import com.univocity.parsers.common.record.Record;
+import edu.uci.banerjee.burnserver.BenchmarkData;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/** Parsing an upload with {@link DataIngestService#readRecords}, per whole file. */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CsvParseBenchmark {
+  @Param({"1000", "100000"})
+  public int rows;
+
+  private byte[] csv;
+
+  @Setup
+  public void setUp() {
+    csv = BenchmarkData.csv(rows).getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public void readRecords(Blackhole blackhole) {
+    for (Record record : DataIngestService.readRecords(new ByteArrayInputStream(csv)))
+      blackhole.consume(record.getString("date"));
+  }
+}
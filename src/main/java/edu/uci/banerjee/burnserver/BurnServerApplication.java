@@ -2,8 +2,10 @@ package edu.uci.banerjee.burnserver;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class BurnServerApplication {
 
   public static void main(String[] args) {
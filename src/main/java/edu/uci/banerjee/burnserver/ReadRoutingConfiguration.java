@@ -0,0 +1,64 @@
+package edu.uci.banerjee.burnserver;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+
+/**
+ * Gives read-only transactions (the repository reads behind /fires, /query and /statistics) a
+ * Hikari pool of their own, so ingest writes holding every write connection do not make them
+ * wait. The read pool connects to {@code burn.datasource.read.url} when it is set, e.g. a
+ * replica, and otherwise to the primary database. Both pools report their connection wait times
+ * as {@code hikaricp.connections.acquire}, tagged with the pool name. Reads whose results are kept
+ * until the next change run through {@link edu.uci.banerjee.burnserver.services.PrimaryReads}
+ * instead, so they see the writes a replica may not have applied yet.
+ */
+@Configuration(proxyBeanMethods = false)
+@ConditionalOnProperty(name = "burn.datasource.read.enabled", havingValue = "true")
+@Slf4j
+public class ReadRoutingConfiguration {
+
+  @Bean
+  @ConfigurationProperties("spring.datasource.hikari")
+  public HikariDataSource writeDataSource(DataSourceProperties properties) {
+    final var dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("write");
+    return dataSource;
+  }
+
+  @Bean
+  @ConfigurationProperties("burn.datasource.read.hikari")
+  public HikariDataSource readDataSource(
+      DataSourceProperties properties,
+      @Value("${burn.datasource.read.url:}") String url,
+      @Value("${burn.datasource.read.username:}") String username,
+      @Value("${burn.datasource.read.password:}") String password) {
+    final var builder = properties.initializeDataSourceBuilder().type(HikariDataSource.class);
+    if (!url.isEmpty()) builder.url(url);
+    if (!username.isEmpty()) builder.username(username).password(password);
+
+    final var dataSource = builder.build();
+    dataSource.setPoolName("read");
+    log.info("Routing read-only transactions to {}.", dataSource.getJdbcUrl());
+    return dataSource;
+  }
+
+  @Bean
+  @Primary
+  public DataSource dataSource(
+      @Qualifier("writeDataSource") DataSource write,
+      @Qualifier("readDataSource") DataSource read) {
+    return new LazyConnectionDataSourceProxy(new ReadRoutingDataSource(write, read));
+  }
+}
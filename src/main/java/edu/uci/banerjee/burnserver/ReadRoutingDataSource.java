@@ -0,0 +1,30 @@
+package edu.uci.banerjee.burnserver;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.Map;
+
+/**
+ * Routes connections taken inside a read-only transaction to the read pool and every other one
+ * to the write pool. The transaction is only marked read-only after the transaction manager has
+ * asked for its connection, so this has to sit behind a {@link
+ * org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy}, which fetches the physical
+ * connection on the first statement.
+ */
+class ReadRoutingDataSource extends AbstractRoutingDataSource {
+  private static final String WRITE = "write";
+  private static final String READ = "read";
+
+  ReadRoutingDataSource(DataSource write, DataSource read) {
+    setTargetDataSources(Map.of(WRITE, write, READ, read));
+    setDefaultTargetDataSource(write);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return TransactionSynchronizationManager.isCurrentTransactionReadOnly() ? READ : WRITE;
+  }
+}
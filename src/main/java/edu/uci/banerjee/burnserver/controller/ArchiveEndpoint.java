@@ -0,0 +1,47 @@
+package edu.uci.banerjee.burnserver.controller;
+
+import edu.uci.banerjee.burnserver.services.FireArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.boot.actuate.endpoint.web.WebEndpointResponse;
+import org.springframework.boot.actuate.endpoint.web.annotation.WebEndpoint;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Archiving moves data and cannot be undone, so it is an actuator endpoint rather than part of the
+ * public API: it is off until {@code management.endpoint.archive.enabled} is set and it is added
+ * to {@code management.endpoints.web.exposure.include}, and is meant to be served on an internal
+ * {@code management.server.port}. Actuator endpoints do not allow cross-origin requests.
+ */
+@Component
+@WebEndpoint(id = "archive", enableByDefault = false)
+@Slf4j
+public class ArchiveEndpoint {
+  private final FireArchiveService archiveService;
+
+  public ArchiveEndpoint(FireArchiveService archiveService) {
+    this.archiveService = archiveService;
+  }
+
+  /** First year that is not archived; null when nothing is archived. */
+  @ReadOperation
+  public Map<String, Integer> archivedBefore() {
+    return Collections.singletonMap("archivedBefore", archiveService.getArchivedBefore());
+  }
+
+  /** Archives every fire dated before {@code before}, making those years read-only. */
+  @WriteOperation
+  public WebEndpointResponse<Object> archive(int before) {
+    log.info("Archiving fires before {}.", before);
+    try {
+      return new WebEndpointResponse<>(archiveService.archive(before));
+    } catch (IllegalArgumentException e) {
+      final var error = Collections.singletonMap("error", e.getMessage());
+      return new WebEndpointResponse<>(error, WebEndpointResponse.STATUS_BAD_REQUEST);
+    }
+  }
+}
@@ -1,177 +1,318 @@
 package edu.uci.banerjee.burnserver.controller;
 
-import com.univocity.parsers.common.record.Record;
-import com.univocity.parsers.csv.CsvParser;
-import com.univocity.parsers.csv.CsvParserSettings;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FireFilter;
 import edu.uci.banerjee.burnserver.model.FiresRepo;
 import edu.uci.banerjee.burnserver.model.Statistics;
+import edu.uci.banerjee.burnserver.services.ColumnarFireStore;
 import edu.uci.banerjee.burnserver.services.DataIngestService;
+import edu.uci.banerjee.burnserver.services.FireBatchEncoder;
+import edu.uci.banerjee.burnserver.services.FileIngestService;
+import edu.uci.banerjee.burnserver.services.FireQueryService;
+import edu.uci.banerjee.burnserver.services.IngestJob;
+import edu.uci.banerjee.burnserver.services.IngestJobService;
+import edu.uci.banerjee.burnserver.services.PrimaryReads;
+import edu.uci.banerjee.burnserver.services.ResponseCache;
+import edu.uci.banerjee.burnserver.services.StatisticsCube;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.ByteArrayInputStream;
-import java.io.InputStream;
+import java.io.IOException;
 import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.net.URI;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
 
 @CrossOrigin(origins = "*")
 @RestController
 @Slf4j
 public class BurnsController {
+  /** Columnar fire batches as written by {@link FireBatchEncoder}. */
+  public static final String FIRE_BATCHES_MEDIA_TYPE = "application/vnd.burn.fires";
+
   private final FiresRepo repo;
   private final DataIngestService dataIngestService;
-  private final ExecutorService pool;
+  private final IngestJobService ingestJobService;
+  private final FileIngestService fileIngestService;
+  private final StatisticsCube statisticsCube;
+  private final ColumnarFireStore columnarStore;
+  private final FireQueryService fireQueryService;
+  private final ResponseCache responseCache;
+  private final PrimaryReads primaryReads;
+  private final ObjectMapper objectMapper;
+  private final MeterRegistry registry;
 
-  public BurnsController(FiresRepo repo, DataIngestService dataIngestService) {
+  public BurnsController(
+      FiresRepo repo,
+      DataIngestService dataIngestService,
+      IngestJobService ingestJobService,
+      FileIngestService fileIngestService,
+      StatisticsCube statisticsCube,
+      ColumnarFireStore columnarStore,
+      FireQueryService fireQueryService,
+      ResponseCache responseCache,
+      PrimaryReads primaryReads,
+      ObjectMapper objectMapper,
+      MeterRegistry registry) {
     this.repo = repo;
     this.dataIngestService = dataIngestService;
-
-    this.pool = Executors.newCachedThreadPool();
+    this.ingestJobService = ingestJobService;
+    this.fileIngestService = fileIngestService;
+    this.statisticsCube = statisticsCube;
+    this.columnarStore = columnarStore;
+    this.fireQueryService = fireQueryService;
+    this.responseCache = responseCache;
+    this.primaryReads = primaryReads;
+    this.objectMapper = objectMapper;
+    this.registry = registry;
   }
 
   @GetMapping("/fires")
-  public List<Fire> getAll() {
-    return repo.findAll();
+  public ResponseEntity<byte[]> getAll(WebRequest request) {
+    return cached(
+        "fires",
+        request,
+        () -> {
+          final var fires = repo.findAll();
+          recordResults("fires", fires.size());
+          return fires;
+        });
   }
 
+  @GetMapping(value = "/fires", produces = FIRE_BATCHES_MEDIA_TYPE)
+  public ResponseEntity<StreamingResponseBody> streamAllBatches() {
+    return fireBatches(new FireFilter(), "fires.batches");
+  }
+
+  /**
+   * Ingests one or more uploaded files, each a CSV, a gzipped CSV or a zip archive of CSVs, in
+   * parallel and answers with one finished job per CSV: 200 when every job succeeded, 207 when
+   * only some did and 422 when none did.
+   */
   @PostMapping("/load/file")
-  public ResponseEntity<String> loadBurnData(@RequestParam("file") MultipartFile file)
-      throws Exception {
-    log.info("Received New Dataset.");
+  public ResponseEntity<List<IngestJob>> loadBurnData(
+      @RequestParam("file") List<MultipartFile> files) throws IOException {
+    log.info("Received {} New Dataset Files.", files.size());
 
-    if (file.isEmpty()) {
+    final var uploads = new ArrayList<Resource>(files.size());
+    for (MultipartFile file : files) {
+      if (!file.isEmpty()) uploads.add(file.getResource());
+    }
+    if (uploads.isEmpty()) {
       log.info("File Received Empty.");
       return new ResponseEntity<>(HttpStatus.NOT_FOUND);
     }
 
-    int numRecords = dataIngestService.saveFires(readRecords(file.getInputStream()));
+    final var jobs = fileIngestService.ingest(uploads);
+    log.info("Saved {} Fires.", jobs.stream().mapToLong(IngestJob::getRowsPersisted).sum());
 
-    log.info("Saved {} Fires.", numRecords);
-    return new ResponseEntity<>(HttpStatus.OK);
+    final long failed =
+        jobs.stream().filter(job -> job.getStatus() == IngestJob.Status.FAILED).count();
+    if (failed == 0) return ResponseEntity.ok(jobs);
+    log.warn("{} of {} uploaded CSVs failed.", failed, jobs.size());
+    return ResponseEntity.status(
+            failed == jobs.size() ? HttpStatus.UNPROCESSABLE_ENTITY : HttpStatus.MULTI_STATUS)
+        .body(jobs);
   }
 
   @PostMapping("/load")
-  public ResponseEntity<String> loadBurnData(@RequestBody String csv) {
+  public ResponseEntity<IngestJob> loadBurnData(@RequestBody String csv) {
     log.info("Received New Dataset.");
 
-    pool.submit(
-        () -> {
-          int numRecords =
-              dataIngestService.saveFires(readRecords(new ByteArrayInputStream(csv.getBytes())));
+    try {
+      final var job =
+          ingestJobService.submit(
+              progress ->
+                  dataIngestService.saveFires(
+                      DataIngestService.readRecords(new ByteArrayInputStream(csv.getBytes())),
+                      progress));
 
-          log.info("Saved {} Fires.", numRecords);
-        });
+      return ResponseEntity.accepted().location(URI.create("/load/jobs/" + job.getId())).body(job);
+    } catch (RejectedExecutionException e) {
+      log.warn("Ingest queue is full, rejecting dataset.");
+      return new ResponseEntity<>(HttpStatus.TOO_MANY_REQUESTS);
+    }
+  }
 
-    return new ResponseEntity<>(HttpStatus.OK);
+  @GetMapping("/load/jobs/{id}")
+  public ResponseEntity<IngestJob> ingestJob(@PathVariable String id) {
+    return ingestJobService
+        .find(id)
+        .map(ResponseEntity::ok)
+        .orElseGet(() -> new ResponseEntity<>(HttpStatus.NOT_FOUND));
   }
 
+  /**
+   * Matching fires as one JSON document. Passing {@code limit} pages through results in id order;
+   * {@code next} in the response is the {@code after} cursor for the following page.
+   */
   @GetMapping("query")
-  public ResponseEntity<Resp> queryFires(
-      @RequestParam(required = false) String source,
-      @RequestParam(required = false) String countyUnitId,
-      @RequestParam(required = false) String county,
-      @RequestParam(required = false) Double minAcres,
-      @RequestParam(required = false) Double maxAcres,
-      @RequestParam(required = false) String burnType,
-      @RequestParam(required = false) String treatmentType,
-      @RequestParam(required = false) Integer startYear,
-      @RequestParam(required = false) Integer endYear,
-      @RequestParam(required = false) Integer startMonth,
-      @RequestParam(required = false) Integer endMonth,
-      @RequestParam(required = false) String owner,
-      @RequestParam(required = false) Boolean escaped,
-      @RequestParam(required = false) Double minSeverity,
-      @RequestParam(required = false) Double maxSeverity) {
-
+  public ResponseEntity<byte[]> queryFires(
+      FireFilter filter,
+      @RequestParam(required = false) Integer after,
+      @RequestParam(required = false) Integer limit,
+      WebRequest request) {
     log.debug("Query against all features.");
+    checkBoundingBox(filter);
 
-    final var fires =
-        repo.findByAllParams(
-            source,
-            countyUnitId,
-            county,
-            minAcres,
-            maxAcres,
-            burnType,
-            treatmentType,
-            startYear,
-            endYear,
-            startMonth,
-            endMonth,
-            owner,
-            escaped);
-    final var resp = new Resp(new EmbeddedData(fires));
+    final var key = "query " + filter + (limit == null ? "" : " " + after + " " + limit);
+    return cached(key, request, () -> findFires(filter, after, limit));
+  }
 
-    log.debug("Discovered {}.", resp);
+  private Resp findFires(FireFilter filter, Integer after, Integer limit) {
+    final Resp resp;
+    if (limit == null) {
+      final var fires =
+          columnarStore.query(filter, null, null).orElseGet(() -> repo.findByFilter(filter));
+      resp = new Resp(new EmbeddedData(fires), null);
+    } else {
+      final var fires =
+          columnarStore
+              .query(filter, after, limit)
+              .orElseGet(() -> repo.findPageByFilter(filter, after, limit));
+      final var next = fires.size() == limit ? fires.get(fires.size() - 1).getId() : null;
+      resp = new Resp(new EmbeddedData(fires), next);
+    }
 
-    return new ResponseEntity<>(resp, HttpStatus.OK);
+    log.debug("Discovered {} fires.", resp.get_embedded().getFires().size());
+    recordResults("query", resp.get_embedded().getFires().size());
+    return resp;
   }
 
-  @GetMapping("statistics")
-  public Statistics fireStatistics(
-      @RequestParam(required = false) String source,
-      @RequestParam(required = false) String countyUnitId,
-      @RequestParam(required = false) String county,
-      @RequestParam(required = false) Double minAcres,
-      @RequestParam(required = false) Double maxAcres,
-      @RequestParam(required = false) String burnType,
-      @RequestParam(required = false) String treatmentType,
-      @RequestParam(required = false) Integer startYear,
-      @RequestParam(required = false) Integer endYear,
-      @RequestParam(required = false) Integer startMonth,
-      @RequestParam(required = false) Integer endMonth,
-      @RequestParam(required = false) String owner,
-      @RequestParam(required = false) Boolean escaped,
-      @RequestParam(required = false) Double minSeverity,
-      @RequestParam(required = false) Double maxSeverity) {
+  /** Matching fires as newline-delimited JSON, streamed from the database as they are read. */
+  @GetMapping(value = "query", produces = MediaType.APPLICATION_NDJSON_VALUE)
+  public ResponseEntity<StreamingResponseBody> streamFires(FireFilter filter) {
+    log.debug("Streaming query against all features.");
+    checkBoundingBox(filter);
+
+    final StreamingResponseBody body =
+        out -> {
+          final var count = new AtomicLong();
+          try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.setRootValueSeparator(new SerializedString("\n"));
+            fireQueryService.forEach(
+                filter,
+                fire -> {
+                  try {
+                    objectMapper.writeValue(json, fire);
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                  count.incrementAndGet();
+                });
+            json.writeRaw('\n');
+          }
+          recordResults("query.ndjson", count.get());
+        };
+
+    return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+  }
+
+  /** Matching fires in the columnar binary format, streamed from the database as they are read. */
+  @GetMapping(value = "query", produces = FIRE_BATCHES_MEDIA_TYPE)
+  public ResponseEntity<StreamingResponseBody> streamBatches(FireFilter filter) {
+    log.debug("Streaming columnar query against all features.");
+    checkBoundingBox(filter);
+
+    return fireBatches(filter, "query.batches");
+  }
+
+  private ResponseEntity<StreamingResponseBody> fireBatches(FireFilter filter, String endpoint) {
+    final StreamingResponseBody body =
+        out -> {
+          final var count = new AtomicLong();
+          try (var encoder = new FireBatchEncoder(out)) {
+            fireQueryService.forEach(
+                filter,
+                fire -> {
+                  encoder.accept(fire);
+                  count.incrementAndGet();
+                });
+          }
+          recordResults(endpoint, count.get());
+        };
 
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(FIRE_BATCHES_MEDIA_TYPE))
+        .body(body);
+  }
+
+  @GetMapping("statistics")
+  public ResponseEntity<byte[]> fireStatistics(FireFilter filter, WebRequest request) {
     log.debug("Calculating fire statistics.");
+    checkBoundingBox(filter);
+
+    return cached(
+        "statistics " + filter,
+        request,
+        () -> {
+          final var statistics =
+              statisticsCube
+                  .statistics(filter)
+                  .or(() -> columnarStore.statistics(filter))
+                  .orElseGet(() -> Statistics.of(repo.filterStatistics(filter)));
+          recordResults("statistics", statistics.getNumFires());
+          return statistics;
+        });
+  }
 
-    final var fireStats =
-        repo.filterStatistics(
-            source,
-            countyUnitId,
-            county,
-            minAcres,
-            maxAcres,
-            burnType,
-            treatmentType,
-            startYear,
-            endYear,
-            startMonth,
-            endMonth,
-            owner,
-            escaped);
-
-    String[] stats = fireStats.split(",");
-    Integer count = Integer.parseInt(stats[0]);
-    Double size = Double.parseDouble(stats[1]);
-    Integer minYear = Integer.parseInt(stats[2]);
-    Integer maxYear = Integer.parseInt(stats[3]);
-    Double minSize = Double.parseDouble(stats[4]);
-    Double maxSize = Double.parseDouble(stats[5]);
-    Statistics fireStatistics = new Statistics(count, size, minYear, maxYear, minSize, maxSize);
-    return fireStatistics;
-  }
-
-  private List<Record> readRecords(InputStream data) {
-    CsvParserSettings csvSettings = new CsvParserSettings();
-    csvSettings.setHeaderExtractionEnabled(true);
-    CsvParser parser = new CsvParser(csvSettings);
-    return parser.parseAllRecords(data);
+  /**
+   * Answers from {@link ResponseCache}, or with a bodiless 304 when the client's {@code
+   * If-None-Match} still names the current dataset version, without computing the answer. Answers
+   * are computed from the primary, since they are cached until the next change.
+   */
+  private ResponseEntity<byte[]> cached(String key, WebRequest request, Supplier<Object> compute) {
+    if (request.checkNotModified(responseCache.etag())) return null;
+
+    final var response = responseCache.get(key, () -> primaryReads.read(compute));
+    return ResponseEntity.ok()
+        .eTag(response.getEtag())
+        .contentType(MediaType.APPLICATION_JSON)
+        .body(response.getBody());
+  }
+
+  /** Number of fires a query matched, recorded when it actually runs rather than per request. */
+  private void recordResults(String endpoint, long fires) {
+    DistributionSummary.builder("burn.query.results")
+        .description("Fires matched by one query")
+        .tag("endpoint", endpoint)
+        .publishPercentileHistogram()
+        .register(registry)
+        .record(fires);
+  }
+
+  private void checkBoundingBox(FireFilter filter) {
+    if (filter.hasPartialBoundingBox())
+      throw new ResponseStatusException(
+          HttpStatus.BAD_REQUEST, "A bounding box needs all of west, south, east and north.");
   }
 
   @Data
   private static class Resp implements Serializable {
     private final EmbeddedData _embedded;
+
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private final Integer next;
   }
 
   @Data
@@ -0,0 +1,36 @@
+package edu.uci.banerjee.burnserver.controller;
+
+import edu.uci.banerjee.burnserver.services.TileService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RestController;
+
+@CrossOrigin(origins = "*")
+@RestController
+@Slf4j
+public class TilesController {
+  public static final String TILE_MEDIA_TYPE = "application/vnd.burn.tile";
+
+  private final TileService tileService;
+
+  public TilesController(TileService tileService) {
+    this.tileService = tileService;
+  }
+
+  /** Clustered fires for one web mercator tile, see {@link TileService} for the byte layout. */
+  @GetMapping("/tiles/{z}/{x}/{y}")
+  public ResponseEntity<byte[]> tile(
+      @PathVariable int z, @PathVariable int x, @PathVariable int y) {
+    if (!TileService.isValid(z, x, y)) return new ResponseEntity<>(HttpStatus.NOT_FOUND);
+
+    log.debug("Serving tile {}/{}/{}.", z, x, y);
+    return ResponseEntity.ok()
+        .contentType(MediaType.parseMediaType(TILE_MEDIA_TYPE))
+        .body(tileService.tile(z, x, y));
+  }
+}
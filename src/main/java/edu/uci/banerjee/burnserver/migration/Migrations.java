@@ -0,0 +1,14 @@
+package edu.uci.banerjee.burnserver.migration;
+
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+
+final class Migrations {
+  private Migrations() {}
+
+  /** Runs on the migration's connection, leaving it open and its transaction to Flyway. */
+  static JdbcTemplate jdbc(Context context) {
+    return new JdbcTemplate(new SingleConnectionDataSource(context.getConnection(), true));
+  }
+}
@@ -0,0 +1,37 @@
+package edu.uci.banerjee.burnserver.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Months used to be stored 0-based, from java.util.Calendar; ingest stores them 1-12 now. Only a
+ * database that predates Flyway, and so was baselined, can hold 0-based rows, and only when none
+ * of its rows is in December: a month of 12 shows 1-based rows were already written, in which case
+ * the rows are left alone since 0-based and 1-based ones cannot be told apart.
+ */
+@Slf4j
+public class V2__OneBasedMonths extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) {
+    final var jdbc = Migrations.jdbc(context);
+    // Flyway creates its history table with quoted, lower case names.
+    final var history = context.getConfiguration().getTable();
+    final int baselines =
+        jdbc.queryForObject(
+            "SELECT COUNT(*) FROM \"" + history + "\" WHERE \"type\" = 'BASELINE'",
+            Integer.class);
+    if (baselines == 0) return;
+
+    final int december =
+        jdbc.queryForObject("SELECT COUNT(*) FROM fires WHERE month = 12", Integer.class);
+    if (december > 0) {
+      log.warn("Not shifting months, {} fires already have a 1-based December.", december);
+      return;
+    }
+
+    final int shifted = jdbc.update("UPDATE fires SET month = month + 1 WHERE month IS NOT NULL");
+    log.info("Made the months of {} fires 1-based.", shifted);
+  }
+}
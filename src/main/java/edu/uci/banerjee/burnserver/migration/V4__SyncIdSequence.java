@@ -0,0 +1,25 @@
+package edu.uci.banerjee.burnserver.migration;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Rows written before ids came from {@value Fire#ID_SEQUENCE} hold identity ids, so the sequence
+ * starts past them. This runs once: restarting it later would hand out ids inside the blocks that
+ * running instances have already reserved.
+ */
+@Slf4j
+public class V4__SyncIdSequence extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) {
+    final var jdbc = Migrations.jdbc(context);
+    final var maxId = jdbc.queryForObject("SELECT MAX(id) FROM fires", Long.class);
+    if (maxId == null) return;
+
+    jdbc.execute("ALTER SEQUENCE " + Fire.ID_SEQUENCE + " RESTART WITH " + (maxId + 1));
+    log.info("Restarted {} after existing id {}.", Fire.ID_SEQUENCE, maxId);
+  }
+}
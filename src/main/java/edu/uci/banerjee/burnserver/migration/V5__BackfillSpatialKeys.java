@@ -0,0 +1,37 @@
+package edu.uci.banerjee.burnserver.migration;
+
+import edu.uci.banerjee.burnserver.model.SpatialKey;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.util.ArrayList;
+
+/** Rows written before fires carried a spatial key would otherwise never match a bbox. */
+@Slf4j
+public class V5__BackfillSpatialKeys extends BaseJavaMigration {
+  private static final int BATCH_SIZE = 500;
+
+  @Override
+  public void migrate(Context context) {
+    final var jdbc = Migrations.jdbc(context);
+    final var updates = new ArrayList<Object[]>();
+
+    jdbc.query(
+        "SELECT id, latitude, longitude FROM fires WHERE spatial_key IS NULL",
+        rs -> {
+          updates.add(
+              new Object[] {
+                SpatialKey.of(rs.getDouble("latitude"), rs.getDouble("longitude")), rs.getInt("id")
+              });
+        });
+    if (updates.isEmpty()) return;
+
+    for (int from = 0; from < updates.size(); from += BATCH_SIZE) {
+      jdbc.batchUpdate(
+          "UPDATE fires SET spatial_key = ? WHERE id = ?",
+          updates.subList(from, Math.min(from + BATCH_SIZE, updates.size())));
+    }
+    log.info("Backfilled spatial keys for {} fires.", updates.size());
+  }
+}
@@ -0,0 +1,64 @@
+package edu.uci.banerjee.burnserver.migration;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+import org.springframework.jdbc.core.BeanPropertyRowMapper;
+
+import java.util.ArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Keys rows written before fires had a natural key. Uploads used to add a row per load, so several
+ * rows can share a key. The newest of them, which holds the content of the latest load, gets the
+ * key. The others are moved to {@code fires_duplicates} rather than deleted, since rows sharing
+ * name, date, coordinates and source can also be distinct fires, e.g. two pile burns with
+ * different acres. Such a fire is kept by uploading it again with a name of its own.
+ */
+@Slf4j
+public class V7__BackfillNaturalKeys extends BaseJavaMigration {
+  private static final int BATCH_SIZE = 500;
+
+  @Override
+  public void migrate(Context context) {
+    final var jdbc = Migrations.jdbc(context);
+    final var rowMapper = new BeanPropertyRowMapper<>(Fire.class);
+    final var updates = new ArrayList<Object[]>(BATCH_SIZE);
+    final var keyed = new AtomicInteger();
+    // Statements in a batch run in order, so a duplicate later in the same batch is skipped too.
+    final Runnable flush =
+        () -> {
+          final int[] counts =
+              jdbc.batchUpdate(
+                  "UPDATE fires SET natural_key = ?, row_hash = ? WHERE id = ? "
+                      + "AND NOT EXISTS (SELECT 1 FROM fires f WHERE f.natural_key = ?)",
+                  updates);
+          for (int count : counts) keyed.addAndGet(Math.max(count, 0));
+          updates.clear();
+        };
+
+    jdbc.query(
+        "SELECT * FROM fires WHERE natural_key IS NULL ORDER BY id DESC",
+        rs -> {
+          final var fire = rowMapper.mapRow(rs, 0);
+          fire.updateKeys();
+          updates.add(
+              new Object[] {
+                fire.getNaturalKey(), fire.getRowHash(), fire.getId(), fire.getNaturalKey()
+              });
+          if (updates.size() == BATCH_SIZE) flush.run();
+        });
+    if (!updates.isEmpty()) flush.run();
+
+    jdbc.execute(
+        "CREATE TABLE IF NOT EXISTS fires_duplicates AS "
+            + "SELECT * FROM fires WHERE natural_key IS NULL");
+    final int duplicates = jdbc.update("DELETE FROM fires WHERE natural_key IS NULL");
+    log.info("Backfilled natural keys for {} fires.", keyed.get());
+    if (duplicates > 0)
+      log.warn(
+          "Moved {} fires sharing the natural key of a newer one to fires_duplicates for review.",
+          duplicates);
+  }
+}
@@ -0,0 +1,64 @@
+package edu.uci.banerjee.burnserver.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+import java.sql.SQLException;
+import java.time.Year;
+
+/**
+ * Rebuilds {@code fires} as a table range partitioned by decade of {@code year} when the
+ * {@code partitioning} placeholder ({@code burn.partitioning.enabled}) is true on PostgreSQL; on
+ * other databases, or when it is off, nothing changes. Unique indexes of a partitioned table must
+ * contain the partition key, so the primary key becomes (id, year) and {@code year} is appended to
+ * the other unique indexes; the natural key already contains the year, so that changes nothing.
+ */
+@Slf4j
+public class V8__PartitionFires extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) throws SQLException {
+    final var enabled = context.getConfiguration().getPlaceholders().get("partitioning");
+    final var database = context.getConnection().getMetaData().getDatabaseProductName();
+    if (!"true".equals(enabled) || !"PostgreSQL".equals(database)) return;
+
+    final long start = System.currentTimeMillis();
+    final var jdbc = Migrations.jdbc(context);
+    final var indexes =
+        jdbc.queryForList(
+            "SELECT indexdef FROM pg_indexes WHERE schemaname = current_schema() "
+                + "AND tablename = 'fires' AND indexname NOT IN "
+                + "(SELECT conname FROM pg_constraint WHERE conrelid = 'fires'::regclass)",
+            String.class);
+    final var years =
+        jdbc.queryForMap("SELECT MIN(year) AS min_year, MAX(year) AS max_year FROM fires");
+
+    jdbc.execute("ALTER TABLE fires RENAME TO fires_unpartitioned");
+    jdbc.execute(
+        "CREATE TABLE fires (LIKE fires_unpartitioned INCLUDING DEFAULTS) "
+            + "PARTITION BY RANGE (year)");
+    jdbc.execute("ALTER TABLE fires ADD PRIMARY KEY (id, year)");
+    jdbc.execute("CREATE TABLE fires_default PARTITION OF fires DEFAULT");
+
+    final int nextYear = Year.now().getValue() + 10;
+    final var minYear = (Number) years.get("min_year");
+    for (int decade = Math.floorDiv(minYear == null ? nextYear : minYear.intValue(), 10) * 10;
+        decade <= nextYear;
+        decade += 10) {
+      jdbc.execute(
+          String.format(
+              "CREATE TABLE fires_%ds PARTITION OF fires FOR VALUES FROM (%d) TO (%d)",
+              decade, decade, decade + 10));
+    }
+
+    final int rows = jdbc.update("INSERT INTO fires SELECT * FROM fires_unpartitioned");
+    jdbc.execute("DROP TABLE fires_unpartitioned");
+    for (String index : indexes) {
+      final boolean unique = index.startsWith("CREATE UNIQUE");
+      jdbc.execute(unique ? index.replaceFirst("\\)$", ", year)") : index);
+    }
+    log.info(
+        "Partitioned {} fires by decade in {} ms.", rows, System.currentTimeMillis() - start);
+  }
+}
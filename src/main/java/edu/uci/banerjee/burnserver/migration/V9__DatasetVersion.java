@@ -0,0 +1,23 @@
+package edu.uci.banerjee.burnserver.migration;
+
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.api.migration.BaseJavaMigration;
+import org.flywaydb.core.api.migration.Context;
+
+/**
+ * Adds the persisted version of {@code fires} that response ETags are derived from. It starts at
+ * the migration time rather than at zero, so a database rebuilt from scratch does not reuse the
+ * ETags of the one it replaced.
+ */
+@Slf4j
+public class V9__DatasetVersion extends BaseJavaMigration {
+
+  @Override
+  public void migrate(Context context) {
+    final var jdbc = Migrations.jdbc(context);
+    final long version = System.currentTimeMillis();
+    jdbc.execute("CREATE TABLE dataset_version (version BIGINT NOT NULL)");
+    jdbc.update("INSERT INTO dataset_version (version) VALUES (?)", version);
+    log.info("Started the dataset version at {}.", version);
+  }
+}
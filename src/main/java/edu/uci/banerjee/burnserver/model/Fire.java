@@ -1,9 +1,12 @@
 package edu.uci.banerjee.burnserver.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 import lombok.ToString;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
 
 import javax.persistence.*;
 
@@ -18,11 +21,32 @@ import javax.persistence.*;
       @Index(columnList = "source", name = "sourceIndex"),
       @Index(columnList = "county", name = "countyIndex"),
       @Index(columnList = "year", name = "yearIndex"),
-      @Index(columnList = "escaped", name = "escapedIndex")
+      @Index(columnList = "escaped", name = "escapedIndex"),
+      @Index(columnList = "spatialKey", name = "spatialIndex"),
+      @Index(columnList = "source, year", name = "sourceYearIndex"),
+      @Index(columnList = "county, year", name = "countyYearIndex"),
+      @Index(columnList = "year, month", name = "yearMonthIndex"),
+      @Index(columnList = "severity", name = "severityIndex"),
+      @Index(columnList = "ownershipPending", name = "ownershipPendingIndex"),
+      @Index(columnList = "naturalKey", name = "naturalKeyIndex", unique = true)
     })
 public class Fire {
+  public static final String ID_SEQUENCE = "fires_seq";
+  /** Ids each sequence value reserves (pooled-lo), so inserts can be JDBC batched. */
+  public static final int ID_ALLOCATION_SIZE = 50;
+
+  private static final ThreadLocal<FieldHash> HASH = ThreadLocal.withInitial(FieldHash::new);
+
   @Id
-  @GeneratedValue(strategy = GenerationType.IDENTITY)
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "fireIdGenerator")
+  @GenericGenerator(
+      name = "fireIdGenerator",
+      strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+      parameters = {
+        @Parameter(name = "sequence_name", value = ID_SEQUENCE),
+        @Parameter(name = "increment_size", value = "" + ID_ALLOCATION_SIZE),
+        @Parameter(name = "optimizer", value = "pooled-lo")
+      })
   @Column(name = "id", nullable = false, unique = true)
   private int id;
 
@@ -71,6 +95,25 @@ public class Fire {
   @Column(name = "escaped")
   private Boolean escaped;
 
+  // Set while the owner could not be resolved yet; OwnershipBackfill retries these rows.
+  @JsonIgnore
+  @Column(name = "ownershipPending")
+  private Boolean ownershipPending;
+
+  @JsonIgnore
+  @Column(name = "spatialKey")
+  private Long spatialKey;
+
+  // Identifies the same fire across uploads: its name, date, coordinates and source.
+  @JsonIgnore
+  @Column(name = "naturalKey", length = 32)
+  private String naturalKey;
+
+  // Hash of the remaining columns read from an upload, to tell a changed fire from a resent one.
+  @JsonIgnore
+  @Column(name = "rowHash")
+  private Long rowHash;
+
   public Fire(
       double acres,
       String burnType,
@@ -88,19 +131,92 @@ public class Fire {
       Double severity,
       Boolean escaped) {
     this.acres = acres;
-    this.burnType = burnType;
-    this.treatmentType = treatmentType;
-    this.countyUnitId = countyUnitId;
-    this.county = county;
+    setBurnType(burnType);
+    setTreatmentType(treatmentType);
+    setCountyUnitId(countyUnitId);
+    setCounty(county);
     this.latitude = latitude;
     this.longitude = longitude;
     this.name = name;
-    this.source = source;
+    setSource(source);
     this.year = year;
     this.month = month;
     this.day = day;
-    this.owner = owner;
+    setOwner(owner);
     this.severity = severity;
     this.escaped = escaped;
   }
+
+  public void setBurnType(String burnType) {
+    this.burnType = ValueDictionary.intern(burnType);
+  }
+
+  public void setTreatmentType(String treatmentType) {
+    this.treatmentType = ValueDictionary.intern(treatmentType);
+  }
+
+  public void setCountyUnitId(String countyUnitId) {
+    this.countyUnitId = ValueDictionary.intern(countyUnitId);
+  }
+
+  public void setCounty(String county) {
+    this.county = ValueDictionary.intern(county);
+  }
+
+  public void setSource(String source) {
+    this.source = ValueDictionary.intern(source);
+  }
+
+  public void setOwner(String owner) {
+    this.owner = ValueDictionary.intern(owner);
+  }
+
+  /**
+   * Computes {@link #naturalKey} and {@link #rowHash} from the current column values. It runs for
+   * every ingested row, so the columns are hashed in place with a per-thread {@link FieldHash}.
+   */
+  public void updateKeys() {
+    final var hash = HASH.get();
+    hash.reset().add(name).add(year).add(month).add(day).add(latitude).add(longitude).add(source);
+    naturalKey = hex(hash.finish());
+
+    hash.reset()
+        .add(acres)
+        .add(burnType)
+        .add(treatmentType)
+        .add(countyUnitId)
+        .add(county)
+        .add(severity)
+        .add(escaped);
+    rowHash = hash.finish().high();
+  }
+
+  @PrePersist
+  @PreUpdate
+  void updateSpatialKey() {
+    spatialKey = SpatialKey.of(latitude, longitude);
+    updateKeys();
+  }
+
+  // Hibernate fills the columns through the fields, bypassing the interning setters.
+  @PostLoad
+  void internColumns() {
+    setBurnType(burnType);
+    setTreatmentType(treatmentType);
+    setCountyUnitId(countyUnitId);
+    setCounty(county);
+    setSource(source);
+    setOwner(owner);
+  }
+
+  private static String hex(FieldHash hash) {
+    final var hex = new char[32];
+    for (int i = 0; i < 16; i++) {
+      final long half = i < 8 ? hash.high() : hash.low();
+      final int b = (int) (half >>> (56 - 8 * (i % 8))) & 0xff;
+      hex[2 * i] = Character.forDigit(b >> 4, 16);
+      hex[2 * i + 1] = Character.forDigit(b & 0xf, 16);
+    }
+    return new String(hex);
+  }
 }
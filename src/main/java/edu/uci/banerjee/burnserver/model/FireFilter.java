@@ -0,0 +1,45 @@
+package edu.uci.banerjee.burnserver.model;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** Filters accepted by the query and statistics endpoints. Unset fields do not filter. */
+@Data
+@NoArgsConstructor
+public class FireFilter {
+  private String source;
+  private String countyUnitId;
+  private String county;
+  private Double minAcres;
+  private Double maxAcres;
+  private String burnType;
+  private String treatmentType;
+  private Integer startYear;
+  private Integer endYear;
+  private Integer startMonth;
+  private Integer endMonth;
+  private String owner;
+  private Boolean escaped;
+  private Double minSeverity;
+  private Double maxSeverity;
+  private Double west;
+  private Double south;
+  private Double east;
+  private Double north;
+
+  public boolean hasBoundingBox() {
+    return west != null && south != null && east != null && north != null;
+  }
+
+  /** Some but not all of west, south, east and north are set. */
+  public boolean hasPartialBoundingBox() {
+    return !hasBoundingBox() && (west != null || south != null || east != null || north != null);
+  }
+
+  /** {@link SpatialKey#ranges} of the bounding box, or none when it is not set. */
+  public List<long[]> spatialKeyRanges() {
+    return hasBoundingBox() ? SpatialKey.ranges(south, west, north, east) : List.of();
+  }
+}
@@ -0,0 +1,17 @@
+package edu.uci.banerjee.burnserver.model;
+
+import lombok.Getter;
+
+/** Just the location and size of a fire, for map rendering without hydrating {@link Fire}. */
+@Getter
+public class FirePoint {
+  private final double latitude;
+  private final double longitude;
+  private final double acres;
+
+  public FirePoint(Double latitude, Double longitude, Double acres) {
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.acres = acres;
+  }
+}
@@ -0,0 +1,87 @@
+package edu.uci.banerjee.burnserver.model;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Builds the WHERE clause for a {@link FireFilter} out of only the predicates that are actually
+ * set, so the planner sees plain sargable comparisons it can match against the fires indexes.
+ */
+public final class FireSpecifications {
+  private static final char LIKE_ESCAPE = '\\';
+
+  private FireSpecifications() {}
+
+  public static Specification<Fire> matching(FireFilter filter) {
+    return (root, query, cb) -> cb.and(predicates(filter, root, cb).toArray(new Predicate[0]));
+  }
+
+  static List<Predicate> predicates(FireFilter filter, Root<Fire> f, CriteriaBuilder cb) {
+    final var predicates = new ArrayList<Predicate>();
+
+    equal(predicates, cb, f.get("source"), filter.getSource());
+    equal(predicates, cb, f.get("countyUnitId"), filter.getCountyUnitId());
+    if (filter.getCounty() != null)
+      predicates.add(
+          cb.like(f.<String>get("county"), escapeLike(filter.getCounty()) + "%", LIKE_ESCAPE));
+    atLeast(predicates, cb, f.<Double>get("acres"), filter.getMinAcres());
+    atMost(predicates, cb, f.<Double>get("acres"), filter.getMaxAcres());
+    equal(predicates, cb, f.get("burnType"), filter.getBurnType());
+    equal(predicates, cb, f.get("treatmentType"), filter.getTreatmentType());
+    atLeast(predicates, cb, f.<Integer>get("year"), filter.getStartYear());
+    atMost(predicates, cb, f.<Integer>get("year"), filter.getEndYear());
+    // todo this needs some work done to how the start and end months were implemented. We need to
+    // revisit the ux of that filter
+    atLeast(predicates, cb, f.<Integer>get("month"), filter.getStartMonth());
+    atMost(predicates, cb, f.<Integer>get("month"), filter.getEndMonth());
+    equal(predicates, cb, f.get("owner"), filter.getOwner());
+    equal(predicates, cb, f.get("escaped"), filter.getEscaped());
+    atLeast(predicates, cb, f.<Double>get("severity"), filter.getMinSeverity());
+    atMost(predicates, cb, f.<Double>get("severity"), filter.getMaxSeverity());
+
+    if (filter.hasBoundingBox()) {
+      // The outer key range is an index range scan on any database, the quadrant ranges let the
+      // planner skip the keys between them, and the exact checks drop the points the ranges pick
+      // up from outside the box.
+      final var ranges = filter.spatialKeyRanges();
+      final Path<Long> key = f.get("spatialKey");
+      if (!ranges.isEmpty())
+        predicates.add(cb.between(key, ranges.get(0)[0], ranges.get(ranges.size() - 1)[1]));
+      if (ranges.size() > 1) {
+        final var quadrants = new Predicate[ranges.size()];
+        for (int i = 0; i < quadrants.length; i++)
+          quadrants[i] = cb.between(key, ranges.get(i)[0], ranges.get(i)[1]);
+        predicates.add(cb.or(quadrants));
+      }
+      predicates.add(cb.between(f.<Double>get("latitude"), filter.getSouth(), filter.getNorth()));
+      predicates.add(cb.between(f.<Double>get("longitude"), filter.getWest(), filter.getEast()));
+    }
+
+    return predicates;
+  }
+
+  private static void equal(
+      List<Predicate> predicates, CriteriaBuilder cb, Path<Object> path, Object value) {
+    if (value != null) predicates.add(cb.equal(path, value));
+  }
+
+  private static <T extends Comparable<? super T>> void atLeast(
+      List<Predicate> predicates, CriteriaBuilder cb, Path<T> path, T value) {
+    if (value != null) predicates.add(cb.greaterThanOrEqualTo(path, value));
+  }
+
+  private static <T extends Comparable<? super T>> void atMost(
+      List<Predicate> predicates, CriteriaBuilder cb, Path<T> path, T value) {
+    if (value != null) predicates.add(cb.lessThanOrEqualTo(path, value));
+  }
+
+  private static String escapeLike(String value) {
+    return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+  }
+}
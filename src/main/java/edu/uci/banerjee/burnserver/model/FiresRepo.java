@@ -1,16 +1,28 @@
 package edu.uci.banerjee.burnserver.model;
 
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.core.annotation.RepositoryRestResource;
+import org.springframework.data.rest.core.annotation.RestResource;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.CrossOrigin;
 
+import javax.persistence.QueryHint;
 import java.util.List;
+import java.util.stream.Stream;
 
+// Query methods run read-only, so they can be routed to the read pool; the inherited writes keep
+// the read-write transactions of SimpleJpaRepository. Called from PrimaryReads, they join its
+// read-write transaction and use the write pool.
 @CrossOrigin(origins = "*")
+@Transactional(readOnly = true)
 @RepositoryRestResource(collectionResourceRel = "fires", path = "fires")
-public interface FiresRepo extends JpaRepository<Fire, Integer> {
+public interface FiresRepo
+    extends JpaRepository<Fire, Integer>, JpaSpecificationExecutor<Fire>, FiresRepoCustom {
 
   List<Fire> findByEscapedFalse();
 
@@ -34,47 +46,67 @@ public interface FiresRepo extends JpaRepository<Fire, Integer> {
 
   List<Fire> findBySeverityBetween(Double min, Double max);
 
-  // todo this needs some work done to how the start and end months were implemented. We need to
-  // revisit the ux of that filter
-  @Query(
-      "SELECT f FROM Fire f WHERE (:source is null or f.source = :source) and (:county is null or f.county like %:county%) and (:countyUnitId is null or f.countyUnitId = :countyUnitId) and"
-          + "(:minAcres is null or f.acres >= :minAcres) and (:maxAcres is null or f.acres <= :maxAcres) and "
-          + "(:burnType is null or f.burnType = :burnType) and (:treatmentType is null or f.treatmentType = :treatmentType) and (:startYear is null or f.year >= :startYear) and "
-          + "(:endYear is null or f.year <= :endYear) and (:startMonth is null or f.month >= :startMonth) and "
-          + "(:endMonth is null or f.month <= :endMonth) and (:owner is null or f.owner = :owner) and (:escaped is null or f.escaped = :escaped)")
-  List<Fire> findByAllParams(
-      @Param("source") String source,
-      @Param("countyUnitId") String countyUnitId,
-      @Param("county") String county,
-      @Param("minAcres") Double minAcres,
-      @Param("maxAcres") Double maxAcres,
-      @Param("burnType") String burnType,
-      @Param("treatmentType") String treatmentType,
-      @Param("startYear") Integer startYear,
-      @Param("endYear") Integer endYear,
-      @Param("startMonth") Integer startMonth,
-      @Param("endMonth") Integer endMonth,
-      @Param("owner") String owner,
-      @Param("escaped") Boolean escaped);
+  @RestResource(exported = false)
+  List<Fire> findTop500ByOwnershipPendingTrueAndYearGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+      int year, int afterId);
 
+  @QueryHints({
+    @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "1000"),
+    @QueryHint(name = org.hibernate.jpa.QueryHints.HINT_READONLY, value = "true")
+  })
   @Query(
-      "SELECT COUNT(f), AVG(f.acres), MIN(f.year), MAX(f.year), MIN(f.acres), MAX(f.acres) FROM Fire f WHERE (:source is null or f.source = :source) and (:county is null or f.county like %:county%) and (:countyUnitId is null or f.countyUnitId = :countyUnitId) and"
-          + "(:minAcres is null or f.acres >= :minAcres) and (:maxAcres is null or f.acres <= :maxAcres) and "
-          + "(:burnType is null or f.burnType = :burnType) and (:treatmentType is null or f.treatmentType = :treatmentType) and (:startYear is null or f.year >= :startYear) and "
-          + "(:endYear is null or f.year <= :endYear) and (:startMonth is null or f.month >= :startMonth) and "
-          + "(:endMonth is null or f.month <= :endMonth) and (:owner is null or f.owner = :owner) and (:escaped is null or f.escaped = :escaped)")
-  String filterStatistics(
-      @Param("source") String source,
-      @Param("countyUnitId") String countyUnitId,
-      @Param("county") String county,
-      @Param("minAcres") Double minAcres,
-      @Param("maxAcres") Double maxAcres,
-      @Param("burnType") String burnType,
-      @Param("treatmentType") String treatmentType,
-      @Param("startYear") Integer startYear,
-      @Param("endYear") Integer endYear,
-      @Param("startMonth") Integer startMonth,
-      @Param("endMonth") Integer endMonth,
-      @Param("owner") String owner,
-      @Param("escaped") Boolean escaped);
+      "SELECT new edu.uci.banerjee.burnserver.model.FirePoint(f.latitude, f.longitude, f.acres) FROM Fire f WHERE "
+          + "f.spatialKey between :minKey and :maxKey and f.latitude between :south and :north and f.longitude between :west and :east")
+  Stream<FirePoint> streamPointsByBoxParams(
+      @Param("west") double west,
+      @Param("south") double south,
+      @Param("east") double east,
+      @Param("north") double north,
+      @Param("minKey") long minKey,
+      @Param("maxKey") long maxKey);
+
+  /**
+   * Locations of every fire inside the box, one index range scan per {@link SpatialKey#ranges}
+   * range. Must be consumed inside a transaction and closed.
+   */
+  default Stream<FirePoint> streamPointsInBox(
+      double west, double south, double east, double north) {
+    return SpatialKey.ranges(south, west, north, east).stream()
+        .flatMap(range -> streamPointsByBoxParams(west, south, east, north, range[0], range[1]));
+  }
+
+  default List<Fire> findByFilter(FireFilter filter) {
+    return findAll(FireSpecifications.matching(filter), Sort.by("id"));
+  }
+
+  default List<Fire> findByAllParams(
+      String source,
+      String countyUnitId,
+      String county,
+      Double minAcres,
+      Double maxAcres,
+      String burnType,
+      String treatmentType,
+      Integer startYear,
+      Integer endYear,
+      Integer startMonth,
+      Integer endMonth,
+      String owner,
+      Boolean escaped) {
+    final var filter = new FireFilter();
+    filter.setSource(source);
+    filter.setCountyUnitId(countyUnitId);
+    filter.setCounty(county);
+    filter.setMinAcres(minAcres);
+    filter.setMaxAcres(maxAcres);
+    filter.setBurnType(burnType);
+    filter.setTreatmentType(treatmentType);
+    filter.setStartYear(startYear);
+    filter.setEndYear(endYear);
+    filter.setStartMonth(startMonth);
+    filter.setEndMonth(endMonth);
+    filter.setOwner(owner);
+    filter.setEscaped(escaped);
+    return findByFilter(filter);
+  }
 }
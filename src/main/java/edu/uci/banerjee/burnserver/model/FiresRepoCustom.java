@@ -0,0 +1,39 @@
+package edu.uci.banerjee.burnserver.model;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+/** Filtered queries built from {@link FireSpecifications} instead of one catch-all JPQL string. */
+public interface FiresRepoCustom {
+  /** Up to {@code limit} matching fires with ids greater than {@code afterId}, in id order. */
+  List<Fire> findPageByFilter(FireFilter filter, Integer afterId, int limit);
+
+  /** Matching fires in id order. Must be consumed inside a transaction and closed afterwards. */
+  Stream<Fire> streamByFilter(FireFilter filter);
+
+  /**
+   * Aggregates the filtered fires per (year, county) in a single scan. {@link
+   * Statistics#of(List)} folds the groups into overall, per-year and per-county figures.
+   */
+  List<StatisticsGroup> filterStatistics(FireFilter filter);
+
+  /**
+   * Aggregates every fire per statistics cube dimension. Years that were archived come from the
+   * cells stored when they were archived instead of from {@code fires}.
+   */
+  List<StatisticsCell> statisticsCells();
+
+  /**
+   * Aggregates the fires of a single statistics cube cell, where a null dimension matches only
+   * fires without a value. Archived years are not read.
+   */
+  StatisticsCell statisticsCell(
+      String source,
+      String county,
+      String burnType,
+      String treatmentType,
+      Integer year,
+      Integer month,
+      String owner,
+      Boolean escaped);
+}
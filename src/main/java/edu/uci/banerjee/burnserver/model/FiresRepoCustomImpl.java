@@ -0,0 +1,178 @@
+package edu.uci.banerjee.burnserver.model;
+
+import org.hibernate.jpa.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+@Transactional(readOnly = true)
+class FiresRepoCustomImpl implements FiresRepoCustom {
+  @PersistenceContext private EntityManager entityManager;
+
+  @Override
+  public List<Fire> findPageByFilter(FireFilter filter, Integer afterId, int limit) {
+    return entityManager
+        .createQuery(select(filter, afterId))
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
+  @Override
+  public Stream<Fire> streamByFilter(FireFilter filter) {
+    return entityManager
+        .createQuery(select(filter, null))
+        .setHint(QueryHints.HINT_FETCH_SIZE, 1000)
+        .setHint(QueryHints.HINT_READONLY, true)
+        .getResultStream();
+  }
+
+  @Override
+  public List<StatisticsGroup> filterStatistics(FireFilter filter) {
+    final var cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<StatisticsGroup> query = cb.createQuery(StatisticsGroup.class);
+    final Root<Fire> f = query.from(Fire.class);
+    final Expression<Integer> escaped =
+        cb.<Integer>selectCase().when(cb.isTrue(f.get("escaped")), 1).otherwise(0);
+
+    query
+        .select(
+            cb.construct(
+                StatisticsGroup.class,
+                f.get("year"),
+                f.get("county"),
+                cb.count(f),
+                cb.sum(f.<Double>get("acres")),
+                cb.min(f.<Double>get("acres")),
+                cb.max(f.<Double>get("acres")),
+                cb.sumAsLong(escaped)))
+        .where(FireSpecifications.predicates(filter, f, cb).toArray(new Predicate[0]))
+        .groupBy(f.get("year"), f.get("county"));
+
+    return entityManager.createQuery(query).getResultList();
+  }
+
+  @Override
+  public List<StatisticsCell> statisticsCells() {
+    final var cells = new ArrayList<StatisticsCell>();
+    final List<?> boundary =
+        entityManager
+            .createNativeQuery("SELECT archived_before FROM fire_archive")
+            .getResultList();
+    final int archivedBefore =
+        boundary.isEmpty() ? Integer.MIN_VALUE : ((Number) boundary.get(0)).intValue();
+
+    if (!boundary.isEmpty()) {
+      final List<?> rows =
+          entityManager
+              .createNativeQuery(
+                  "SELECT source, county, burn_type, treatment_type, year, month, owner, escaped, "
+                      + "fire_count, total_acres, min_acres, max_acres "
+                      + "FROM fire_archive_statistics")
+              .getResultList();
+      for (Object row : rows) cells.add(archivedCell((Object[]) row));
+    }
+
+    cells.addAll(
+        entityManager
+            .createQuery(
+                "SELECT new edu.uci.banerjee.burnserver.model.StatisticsCell(f.source, f.county, "
+                    + "f.burnType, f.treatmentType, f.year, f.month, f.owner, f.escaped, "
+                    + "COUNT(f), SUM(f.acres), MIN(f.acres), MAX(f.acres)) FROM Fire f "
+                    + "WHERE f.year >= :year GROUP BY f.source, f.county, f.burnType, "
+                    + "f.treatmentType, f.year, f.month, f.owner, f.escaped",
+                StatisticsCell.class)
+            .setParameter("year", archivedBefore)
+            .getResultList());
+    return cells;
+  }
+
+  @Override
+  public StatisticsCell statisticsCell(
+      String source,
+      String county,
+      String burnType,
+      String treatmentType,
+      Integer year,
+      Integer month,
+      String owner,
+      Boolean escaped) {
+    final var cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<Object[]> query = cb.createQuery(Object[].class);
+    final Root<Fire> f = query.from(Fire.class);
+
+    query
+        .multiselect(
+            cb.count(f),
+            cb.sum(f.<Double>get("acres")),
+            cb.min(f.<Double>get("acres")),
+            cb.max(f.<Double>get("acres")))
+        .where(
+            equalOrNull(cb, f.get("source"), source),
+            equalOrNull(cb, f.get("county"), county),
+            equalOrNull(cb, f.get("burnType"), burnType),
+            equalOrNull(cb, f.get("treatmentType"), treatmentType),
+            equalOrNull(cb, f.get("year"), year),
+            equalOrNull(cb, f.get("month"), month),
+            equalOrNull(cb, f.get("owner"), owner),
+            equalOrNull(cb, f.get("escaped"), escaped));
+
+    final var row = entityManager.createQuery(query).getSingleResult();
+    return new StatisticsCell(
+        source,
+        county,
+        burnType,
+        treatmentType,
+        year,
+        month,
+        owner,
+        escaped,
+        (Long) row[0],
+        (Double) row[1],
+        (Double) row[2],
+        (Double) row[3]);
+  }
+
+  private static Predicate equalOrNull(CriteriaBuilder cb, Expression<?> column, Object value) {
+    return value == null ? cb.isNull(column) : cb.equal(column, value);
+  }
+
+  // Native results carry whatever numeric types the database driver returns.
+  private static StatisticsCell archivedCell(Object[] row) {
+    return new StatisticsCell(
+        (String) row[0],
+        (String) row[1],
+        (String) row[2],
+        (String) row[3],
+        row[4] == null ? null : ((Number) row[4]).intValue(),
+        row[5] == null ? null : ((Number) row[5]).intValue(),
+        (String) row[6],
+        (Boolean) row[7],
+        ((Number) row[8]).longValue(),
+        row[9] == null ? null : ((Number) row[9]).doubleValue(),
+        row[10] == null ? null : ((Number) row[10]).doubleValue(),
+        row[11] == null ? null : ((Number) row[11]).doubleValue());
+  }
+
+  private CriteriaQuery<Fire> select(FireFilter filter, Integer afterId) {
+    final var cb = entityManager.getCriteriaBuilder();
+    final CriteriaQuery<Fire> query = cb.createQuery(Fire.class);
+    final Root<Fire> f = query.from(Fire.class);
+
+    final var predicates = FireSpecifications.predicates(filter, f, cb);
+    if (afterId != null) predicates.add(cb.greaterThan(f.<Integer>get("id"), afterId));
+
+    return query
+        .select(f)
+        .where(predicates.toArray(new Predicate[0]))
+        .orderBy(cb.asc(f.get("id")));
+  }
+}
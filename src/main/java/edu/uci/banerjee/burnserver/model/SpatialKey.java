@@ -0,0 +1,99 @@
+package edu.uci.banerjee.burnserver.model;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Z-order (Morton) key of a coordinate: latitude and longitude quantized to 16 bits each and bit
+ * interleaved, so points close on the map mostly sort close together and a bounding box maps to a
+ * few key ranges that a plain B-tree index can scan.
+ */
+public final class SpatialKey {
+  /** Most ranges {@link #ranges} splits a box into by default. */
+  public static final int MAX_RANGES = 16;
+
+  private static final int BITS = 16;
+  private static final double CELLS = (1 << BITS) - 1;
+
+  private SpatialKey() {}
+
+  public static long of(double lat, double lon) {
+    return interleave(quantize(lon, -180, 180)) | (interleave(quantize(lat, -90, 90)) << 1);
+  }
+
+  public static List<long[]> ranges(double south, double west, double north, double east) {
+    return ranges(south, west, north, east, MAX_RANGES);
+  }
+
+  /**
+   * Sorted, disjoint {min, max} key ranges that together hold every point inside the box, none
+   * when the box is empty. One range from the smallest to the largest key can span most of the
+   * keys when the box straddles a quadrant boundary, so the box is decomposed along the quadtree
+   * that Z-order follows instead: a quadrant inside the box is one range, and quadrants it only
+   * overlaps are split a level further for as long as the result stays within {@code maxRanges}.
+   * The ranges still hold some points outside the box, so callers compare latitude/longitude
+   * exactly.
+   */
+  public static List<long[]> ranges(
+      double south, double west, double north, double east, int maxRanges) {
+    final int minX = quantize(west, -180, 180);
+    final int maxX = quantize(east, -180, 180);
+    final int minY = quantize(south, -90, 90);
+    final int maxY = quantize(north, -90, 90);
+    final var ranges = new ArrayList<long[]>();
+    if (minX > maxX || minY > maxY) return ranges;
+
+    // Quadrants the box overlaps but does not contain, as the x and y of their first cell.
+    var overlapped = List.of(new int[] {0, 0});
+    int level = BITS;
+    for (; level > 0 && !overlapped.isEmpty(); level--) {
+      final int size = 1 << (level - 1);
+      final var inside = new ArrayList<long[]>();
+      final var next = new ArrayList<int[]>();
+      for (int[] quadrant : overlapped) {
+        for (int child = 0; child < 4; child++) {
+          final int x = quadrant[0] + ((child & 1) == 0 ? 0 : size);
+          final int y = quadrant[1] + ((child & 2) == 0 ? 0 : size);
+          if (x > maxX || x + size - 1 < minX || y > maxY || y + size - 1 < minY) continue;
+          if (x >= minX && x + size - 1 <= maxX && y >= minY && y + size - 1 <= maxY)
+            inside.add(quadrant(x, y, level - 1));
+          else next.add(new int[] {x, y});
+        }
+      }
+      if (ranges.size() + inside.size() + next.size() > maxRanges) break;
+      ranges.addAll(inside);
+      overlapped = next;
+    }
+    for (int[] quadrant : overlapped) ranges.add(quadrant(quadrant[0], quadrant[1], level));
+
+    ranges.sort(Comparator.comparingLong(range -> range[0]));
+    final var merged = new ArrayList<long[]>(ranges.size());
+    for (long[] range : ranges) {
+      final var last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+      if (last != null && last[1] + 1 == range[0]) last[1] = range[1];
+      else merged.add(range);
+    }
+    return merged;
+  }
+
+  /** Keys of the square of {@code 2^level} cells starting at x, y, which Z-order keeps together. */
+  private static long[] quadrant(int x, int y, int level) {
+    final long first = interleave(x) | (interleave(y) << 1);
+    return new long[] {first, first + (1L << (2 * level)) - 1};
+  }
+
+  private static int quantize(double value, double min, double max) {
+    final double clamped = Math.max(min, Math.min(max, value));
+    return (int) Math.round((clamped - min) / (max - min) * CELLS);
+  }
+
+  private static long interleave(int value) {
+    long x = value & 0xffffL;
+    x = (x | (x << 8)) & 0x00ff00ffL;
+    x = (x | (x << 4)) & 0x0f0f0f0fL;
+    x = (x | (x << 2)) & 0x33333333L;
+    x = (x | (x << 1)) & 0x55555555L;
+    return x;
+  }
+}
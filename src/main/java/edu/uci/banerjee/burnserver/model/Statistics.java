@@ -1,6 +1,9 @@
 package edu.uci.banerjee.burnserver.model;
 
 import java.io.Serializable;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
 
 public class Statistics implements Serializable {
   private Integer numFires;
@@ -9,6 +12,10 @@ public class Statistics implements Serializable {
   private Integer maxYear;
   private Double minSize;
   private Double maxSize;
+  private Double totalAcres;
+  private Double escapedRatio;
+  private Map<Integer, Long> firesByYear = new TreeMap<>();
+  private Map<String, Long> firesByCounty = new TreeMap<>();
 
   public Statistics(
       Integer numFires,
@@ -25,6 +32,45 @@ public class Statistics implements Serializable {
     this.maxSize = maxSize;
   }
 
+  /** Folds per (year, county) groups into totals. An empty list yields zero fires, not an error. */
+  public static Statistics of(List<StatisticsGroup> groups) {
+    long count = 0;
+    long escaped = 0;
+    double acres = 0;
+    Integer minYear = null;
+    Integer maxYear = null;
+    Double minSize = null;
+    Double maxSize = null;
+    final var byYear = new TreeMap<Integer, Long>();
+    final var byCounty = new TreeMap<String, Long>();
+
+    for (StatisticsGroup group : groups) {
+      count += group.getCount();
+      escaped += group.getEscapedCount();
+      acres += group.getTotalAcres();
+      if (group.getYear() != null) {
+        minYear = minYear == null ? group.getYear() : Math.min(minYear, group.getYear());
+        maxYear = maxYear == null ? group.getYear() : Math.max(maxYear, group.getYear());
+        byYear.merge(group.getYear(), group.getCount(), Long::sum);
+      }
+      if (group.getMinAcres() != null)
+        minSize = minSize == null ? group.getMinAcres() : Math.min(minSize, group.getMinAcres());
+      if (group.getMaxAcres() != null)
+        maxSize = maxSize == null ? group.getMaxAcres() : Math.max(maxSize, group.getMaxAcres());
+      final var county = group.getCounty() == null ? "" : group.getCounty();
+      byCounty.merge(county, group.getCount(), Long::sum);
+    }
+
+    final Double avgSize = count == 0 ? null : acres / count;
+    final var statistics =
+        new Statistics((int) count, avgSize, minYear, maxYear, minSize, maxSize);
+    statistics.setTotalAcres(acres);
+    statistics.setEscapedRatio(count == 0 ? null : (double) escaped / count);
+    statistics.setFiresByYear(byYear);
+    statistics.setFiresByCounty(byCounty);
+    return statistics;
+  }
+
   public Integer getNumFires() {
     return numFires;
   }
@@ -73,6 +119,38 @@ public class Statistics implements Serializable {
     this.maxSize = minSize;
   }
 
+  public Double getTotalAcres() {
+    return totalAcres;
+  }
+
+  public void setTotalAcres(Double totalAcres) {
+    this.totalAcres = totalAcres;
+  }
+
+  public Double getEscapedRatio() {
+    return escapedRatio;
+  }
+
+  public void setEscapedRatio(Double escapedRatio) {
+    this.escapedRatio = escapedRatio;
+  }
+
+  public Map<Integer, Long> getFiresByYear() {
+    return firesByYear;
+  }
+
+  public void setFiresByYear(Map<Integer, Long> firesByYear) {
+    this.firesByYear = firesByYear;
+  }
+
+  public Map<String, Long> getFiresByCounty() {
+    return firesByCounty;
+  }
+
+  public void setFiresByCounty(Map<String, Long> firesByCounty) {
+    this.firesByCounty = firesByCounty;
+  }
+
   @Override
   public String toString() {
     return "Statistics{"
@@ -84,6 +162,10 @@ public class Statistics implements Serializable {
         + minYear
         + ", maxYear="
         + maxYear
+        + ", totalAcres="
+        + totalAcres
+        + ", escapedRatio="
+        + escapedRatio
         + '}';
   }
 }
@@ -0,0 +1,49 @@
+package edu.uci.banerjee.burnserver.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/** Aggregates of the fires sharing every statistics cube dimension. */
+@Getter
+@ToString
+public class StatisticsCell {
+  private final String source;
+  private final String county;
+  private final String burnType;
+  private final String treatmentType;
+  private final Integer year;
+  private final Integer month;
+  private final String owner;
+  private final Boolean escaped;
+  private final long count;
+  private final double totalAcres;
+  private final Double minAcres;
+  private final Double maxAcres;
+
+  public StatisticsCell(
+      String source,
+      String county,
+      String burnType,
+      String treatmentType,
+      Integer year,
+      Integer month,
+      String owner,
+      Boolean escaped,
+      Long count,
+      Double totalAcres,
+      Double minAcres,
+      Double maxAcres) {
+    this.source = source;
+    this.county = county;
+    this.burnType = burnType;
+    this.treatmentType = treatmentType;
+    this.year = year;
+    this.month = month;
+    this.owner = owner;
+    this.escaped = escaped;
+    this.count = count == null ? 0 : count;
+    this.totalAcres = totalAcres == null ? 0 : totalAcres;
+    this.minAcres = minAcres;
+    this.maxAcres = maxAcres;
+  }
+}
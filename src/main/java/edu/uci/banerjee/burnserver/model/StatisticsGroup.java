@@ -0,0 +1,34 @@
+package edu.uci.banerjee.burnserver.model;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/** Aggregates for one (year, county) group of a filtered statistics query. */
+@Getter
+@ToString
+public class StatisticsGroup {
+  private final Integer year;
+  private final String county;
+  private final long count;
+  private final double totalAcres;
+  private final Double minAcres;
+  private final Double maxAcres;
+  private final long escapedCount;
+
+  public StatisticsGroup(
+      Integer year,
+      String county,
+      Long count,
+      Double totalAcres,
+      Double minAcres,
+      Double maxAcres,
+      Long escapedCount) {
+    this.year = year;
+    this.county = county;
+    this.count = count == null ? 0 : count;
+    this.totalAcres = totalAcres == null ? 0 : totalAcres;
+    this.minAcres = minAcres;
+    this.maxAcres = maxAcres;
+    this.escapedCount = escapedCount == null ? 0 : escapedCount;
+  }
+}
@@ -0,0 +1,43 @@
+package edu.uci.banerjee.burnserver.model;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Shared canonical instances of the low-cardinality {@link Fire} columns (source, county, county
+ * unit, burn and treatment type, owner). Every ingested row otherwise carries its own copies of the
+ * same few hundred strings; interning them keeps one copy per distinct value no matter how many
+ * fires are held by an ingest chunk, the statistics cube or a saved-fires event. Fires loaded by
+ * Hibernate are interned after loading, so pages of {@code /fires} and the backfill batches share
+ * the same instances.
+ *
+ * <p>The columns stay strings in {@code fires} rather than becoming keys into dimension tables: the
+ * county filter is a prefix match, and the COPY ingest path, the GROUP BY statistics, the archive
+ * statistics and the columnar store all read the strings directly. Each of those would have to
+ * join or translate keys, while the heap saving is had here without touching the schema.
+ *
+ * <p>The dictionary stops growing at {@value #MAX_ENTRIES} values so a file with a free-text
+ * column in the wrong place cannot fill the heap; values past that are returned as is.
+ */
+public final class ValueDictionary {
+  static final int MAX_ENTRIES = 65_536;
+
+  private static final Map<String, String> VALUES = new ConcurrentHashMap<>();
+
+  private ValueDictionary() {}
+
+  public static String intern(String value) {
+    if (value == null) return null;
+
+    final var existing = VALUES.get(value);
+    if (existing != null) return existing;
+    if (VALUES.size() >= MAX_ENTRIES) return value;
+
+    final var previous = VALUES.putIfAbsent(value, value);
+    return previous == null ? value : previous;
+  }
+
+  public static int size() {
+    return VALUES.size();
+  }
+}
@@ -0,0 +1,422 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FireFilter;
+import edu.uci.banerjee.burnserver.model.Statistics;
+import edu.uci.banerjee.burnserver.model.StatisticsGroup;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.annotation.HandleAfterCreate;
+import org.springframework.data.rest.core.annotation.HandleAfterDelete;
+import org.springframework.data.rest.core.annotation.HandleAfterSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * Read-side copy of {@code fires} held as one primitive array per column, with the string columns
+ * dictionary coded. Filters are evaluated as scans that clear rows from a {@link BitSet}, and
+ * statistics are aggregated straight from the arrays, so neither path hydrates entities; /query
+ * only builds {@link Fire}s for the rows it returns.
+ *
+ * <p>Loaded before the web server starts, appended to from {@link FiresSavedEvent}s and
+ * overwritten from {@link FiresUpdatedEvent}s. Creates, saves and deletes through the Spring Data
+ * REST {@code /fires} resource are applied the same way. It is created at startup even with lazy
+ * initialization, so it is ready for the first request.
+ */
+@Service
+@Lazy(false)
+@Slf4j
+@RepositoryEventHandler
+public class ColumnarFireStore implements SmartInitializingSingleton {
+  private static final int MISSING = Integer.MIN_VALUE;
+  private static final byte NULL_BOOLEAN = -1;
+
+  private final FireQueryService fireQueryService;
+  private final PrimaryReads primaryReads;
+  private final boolean enabled;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private boolean ready;
+
+  private int size;
+  private int[] ids = new int[0];
+  private double[] acres = new double[0];
+  private double[] latitudes = new double[0];
+  private double[] longitudes = new double[0];
+  // Null severities are NaN and null months/days are MISSING, so no comparison matches them.
+  private double[] severities = new double[0];
+  private int[] years = new int[0];
+  private int[] months = new int[0];
+  private int[] days = new int[0];
+  private byte[] escaped = new byte[0];
+  private String[] names = new String[0];
+  private final StringColumn burnTypes = new StringColumn();
+  private final StringColumn treatmentTypes = new StringColumn();
+  private final StringColumn countyUnitIds = new StringColumn();
+  private final StringColumn counties = new StringColumn();
+  private final StringColumn sources = new StringColumn();
+  private final StringColumn owners = new StringColumn();
+
+  public ColumnarFireStore(
+      FireQueryService fireQueryService,
+      PrimaryReads primaryReads,
+      @Value("${burn.query.columnar.enabled:false}") boolean enabled) {
+    this.fireQueryService = fireQueryService;
+    this.primaryReads = primaryReads;
+    this.enabled = enabled;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (enabled) load();
+  }
+
+  public void load() {
+    final long start = System.currentTimeMillis();
+    lock.writeLock().lock();
+    try {
+      size = 0;
+      primaryReads.run(() -> fireQueryService.forEach(new FireFilter(), this::append));
+      ready = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+    log.info(
+        "Loaded {} fires into the columnar store in {} ms.",
+        size,
+        System.currentTimeMillis() - start);
+  }
+
+  @EventListener
+  public void onFiresSaved(FiresSavedEvent event) {
+    lock.writeLock().lock();
+    try {
+      if (!ready) return;
+      event.getFires().forEach(this::append);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @EventListener
+  public void onFiresUpdated(FiresUpdatedEvent event) {
+    overwrite(event.getFires());
+  }
+
+  // Writes through the Spring Data REST /fires resource do not go through the ingest path.
+  @HandleAfterCreate
+  public void onFireCreated(Fire fire) {
+    onFiresSaved(new FiresSavedEvent(List.of(fire)));
+  }
+
+  @HandleAfterSave
+  public void onFireSaved(Fire fire) {
+    overwrite(List.of(fire));
+  }
+
+  // The last row takes the place of the deleted one; queries sort by id, not by row.
+  @HandleAfterDelete
+  public void onFireDeleted(Fire fire) {
+    lock.writeLock().lock();
+    try {
+      if (!ready) return;
+      for (int i = 0; i < size; i++) {
+        if (ids[i] != fire.getId()) continue;
+        size--;
+        if (i < size) move(size, i);
+        return;
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  // Rows are not indexed by id; one scan of the id column finds the rows to overwrite.
+  private void overwrite(List<Fire> fires) {
+    final Map<Integer, Fire> updated = new HashMap<>();
+    for (Fire fire : fires) updated.put(fire.getId(), fire);
+
+    lock.writeLock().lock();
+    try {
+      if (!ready) return;
+      for (int i = 0; i < size; i++) {
+        final var fire = updated.get(ids[i]);
+        if (fire != null) set(i, fire);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Matching fires in id order, starting after {@code afterId} when set and capped at {@code
+   * limit} when set; the same rows {@code FiresRepo.findPageByFilter} returns.
+   */
+  public Optional<List<Fire>> query(FireFilter filter, Integer afterId, Integer limit) {
+    lock.readLock().lock();
+    try {
+      if (!ready) return Optional.empty();
+
+      final var rows = select(filter);
+      if (afterId != null) retain(rows, i -> ids[i] > afterId);
+
+      // Sort rows by id by packing (id, row) into one long per match.
+      final long[] order = new long[rows.cardinality()];
+      int n = 0;
+      for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+        order[n++] = ((long) ids[i] << 32) | i;
+      Arrays.sort(order);
+
+      final int count = limit == null ? order.length : Math.min(limit, order.length);
+      final var fires = new ArrayList<Fire>(count);
+      for (int k = 0; k < count; k++) fires.add(toFire((int) order[k]));
+      return Optional.of(fires);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Same aggregates as {@code FiresRepo.filterStatistics}, computed from the column arrays. */
+  public Optional<Statistics> statistics(FireFilter filter) {
+    lock.readLock().lock();
+    try {
+      if (!ready) return Optional.empty();
+
+      final var rows = select(filter);
+      final Map<Long, Group> groups = new HashMap<>();
+      for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1)) {
+        final long key = ((long) years[i] << 32) | (counties.codes[i] & 0xffffffffL);
+        groups.computeIfAbsent(key, k -> new Group()).add(acres[i], escaped[i] == 1);
+      }
+
+      final var result = new ArrayList<StatisticsGroup>(groups.size());
+      for (Map.Entry<Long, Group> entry : groups.entrySet()) {
+        final var group = entry.getValue();
+        result.add(
+            new StatisticsGroup(
+                (int) (entry.getKey() >> 32),
+                counties.value(entry.getKey().intValue()),
+                group.count,
+                group.totalAcres,
+                group.minAcres,
+                group.maxAcres,
+                group.escapedCount));
+      }
+      return Optional.of(Statistics.of(result));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  // Mirrors FireSpecifications: unset filters are skipped and a null column never matches.
+  private BitSet select(FireFilter filter) {
+    final var rows = new BitSet(size);
+    rows.set(0, size);
+
+    sources.retainEqual(rows, filter.getSource());
+    countyUnitIds.retainEqual(rows, filter.getCountyUnitId());
+    counties.retainPrefix(rows, filter.getCounty());
+    atLeast(rows, acres, filter.getMinAcres());
+    atMost(rows, acres, filter.getMaxAcres());
+    burnTypes.retainEqual(rows, filter.getBurnType());
+    treatmentTypes.retainEqual(rows, filter.getTreatmentType());
+    atLeast(rows, years, filter.getStartYear());
+    atMost(rows, years, filter.getEndYear());
+    atLeast(rows, months, filter.getStartMonth());
+    atMost(rows, months, filter.getEndMonth());
+    owners.retainEqual(rows, filter.getOwner());
+    if (filter.getEscaped() != null) {
+      final byte value = (byte) (filter.getEscaped() ? 1 : 0);
+      retain(rows, i -> escaped[i] == value);
+    }
+    atLeast(rows, severities, filter.getMinSeverity());
+    atMost(rows, severities, filter.getMaxSeverity());
+
+    if (filter.hasBoundingBox()) {
+      atLeast(rows, latitudes, filter.getSouth());
+      atMost(rows, latitudes, filter.getNorth());
+      atLeast(rows, longitudes, filter.getWest());
+      atMost(rows, longitudes, filter.getEast());
+    }
+    return rows;
+  }
+
+  private static void atLeast(BitSet rows, double[] column, Double bound) {
+    if (bound != null) retain(rows, i -> column[i] >= bound);
+  }
+
+  private static void atMost(BitSet rows, double[] column, Double bound) {
+    if (bound != null) retain(rows, i -> column[i] <= bound);
+  }
+
+  private static void atLeast(BitSet rows, int[] column, Integer bound) {
+    if (bound != null) retain(rows, i -> column[i] != MISSING && column[i] >= bound);
+  }
+
+  private static void atMost(BitSet rows, int[] column, Integer bound) {
+    if (bound != null) retain(rows, i -> column[i] != MISSING && column[i] <= bound);
+  }
+
+  private static void retain(BitSet rows, IntPredicate matches) {
+    for (int i = rows.nextSetBit(0); i >= 0; i = rows.nextSetBit(i + 1))
+      if (!matches.test(i)) rows.clear(i);
+  }
+
+  private void append(Fire fire) {
+    if (size == ids.length) grow(Math.max(1024, size * 2));
+    set(size, fire);
+    size++;
+  }
+
+  private void set(int row, Fire fire) {
+    ids[row] = fire.getId();
+    acres[row] = fire.getAcres();
+    latitudes[row] = fire.getLatitude();
+    longitudes[row] = fire.getLongitude();
+    severities[row] = fire.getSeverity() == null ? Double.NaN : fire.getSeverity();
+    years[row] = fire.getYear();
+    months[row] = fire.getMonth() == null ? MISSING : fire.getMonth();
+    days[row] = fire.getDay() == null ? MISSING : fire.getDay();
+    escaped[row] =
+        fire.getEscaped() == null ? NULL_BOOLEAN : (byte) (fire.getEscaped() ? 1 : 0);
+    names[row] = fire.getName();
+    burnTypes.set(row, fire.getBurnType());
+    treatmentTypes.set(row, fire.getTreatmentType());
+    countyUnitIds.set(row, fire.getCountyUnitId());
+    counties.set(row, fire.getCounty());
+    sources.set(row, fire.getSource());
+    owners.set(row, fire.getOwner());
+  }
+
+  private void move(int from, int to) {
+    ids[to] = ids[from];
+    acres[to] = acres[from];
+    latitudes[to] = latitudes[from];
+    longitudes[to] = longitudes[from];
+    severities[to] = severities[from];
+    years[to] = years[from];
+    months[to] = months[from];
+    days[to] = days[from];
+    escaped[to] = escaped[from];
+    names[to] = names[from];
+    names[from] = null;
+    for (StringColumn column :
+        List.of(burnTypes, treatmentTypes, countyUnitIds, counties, sources, owners))
+      column.codes[to] = column.codes[from];
+  }
+
+  private void grow(int capacity) {
+    ids = Arrays.copyOf(ids, capacity);
+    acres = Arrays.copyOf(acres, capacity);
+    latitudes = Arrays.copyOf(latitudes, capacity);
+    longitudes = Arrays.copyOf(longitudes, capacity);
+    severities = Arrays.copyOf(severities, capacity);
+    years = Arrays.copyOf(years, capacity);
+    months = Arrays.copyOf(months, capacity);
+    days = Arrays.copyOf(days, capacity);
+    escaped = Arrays.copyOf(escaped, capacity);
+    names = Arrays.copyOf(names, capacity);
+    for (StringColumn column :
+        List.of(burnTypes, treatmentTypes, countyUnitIds, counties, sources, owners))
+      column.grow(capacity);
+  }
+
+  private Fire toFire(int row) {
+    final var fire =
+        new Fire(
+            acres[row],
+            burnTypes.get(row),
+            treatmentTypes.get(row),
+            countyUnitIds.get(row),
+            counties.get(row),
+            latitudes[row],
+            longitudes[row],
+            names[row],
+            sources.get(row),
+            years[row],
+            months[row] == MISSING ? null : months[row],
+            days[row] == MISSING ? null : days[row],
+            owners.get(row),
+            Double.isNaN(severities[row]) ? null : severities[row],
+            escaped[row] == NULL_BOOLEAN ? null : escaped[row] == 1);
+    fire.setId(ids[row]);
+    return fire;
+  }
+
+  /** Per-row dictionary codes of a string column; code -1 is null. */
+  private static class StringColumn {
+    private static final int NULL = -1;
+    private static final int UNKNOWN = -2;
+
+    private int[] codes = new int[0];
+    private final List<String> values = new ArrayList<>();
+    private final Map<String, Integer> codesByValue = new HashMap<>();
+
+    void grow(int capacity) {
+      codes = Arrays.copyOf(codes, capacity);
+    }
+
+    void set(int row, String value) {
+      codes[row] =
+          value == null
+              ? NULL
+              : codesByValue.computeIfAbsent(
+                  value,
+                  v -> {
+                    values.add(v);
+                    return values.size() - 1;
+                  });
+    }
+
+    String get(int row) {
+      return value(codes[row]);
+    }
+
+    String value(int code) {
+      return code < 0 ? null : values.get(code);
+    }
+
+    void retainEqual(BitSet rows, String value) {
+      if (value == null) return;
+      final int code = codesByValue.getOrDefault(value, UNKNOWN);
+      retain(rows, i -> codes[i] == code);
+    }
+
+    void retainPrefix(BitSet rows, String prefix) {
+      if (prefix == null) return;
+      final var matching = new boolean[values.size()];
+      for (int code = 0; code < matching.length; code++)
+        matching[code] = values.get(code).startsWith(prefix);
+      retain(rows, i -> codes[i] != NULL && matching[codes[i]]);
+    }
+  }
+
+  private static class Group {
+    private long count;
+    private long escapedCount;
+    private double totalAcres;
+    private double minAcres = Double.POSITIVE_INFINITY;
+    private double maxAcres = Double.NEGATIVE_INFINITY;
+
+    void add(double acres, boolean escaped) {
+      count++;
+      if (escaped) escapedCount++;
+      totalAcres += acres;
+      minAcres = Math.min(minAcres, acres);
+      maxAcres = Math.max(maxAcres, acres);
+    }
+  }
+}
@@ -1,65 +1,254 @@
 package edu.uci.banerjee.burnserver.services;
 
+import com.univocity.parsers.common.IterableResult;
+import com.univocity.parsers.common.ParsingContext;
 import com.univocity.parsers.common.record.Record;
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
 import edu.uci.banerjee.burnserver.model.Fire;
-import edu.uci.banerjee.burnserver.model.FiresRepo;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
-import java.text.ParseException;
-import java.text.SimpleDateFormat;
-import java.util.Calendar;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.function.BooleanSupplier;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
 
 import static java.util.stream.Collectors.toUnmodifiableList;
 
 @Service
 @Slf4j
 public class DataIngestService {
-  private final FiresRepo repo;
+  private static final int WRITE_ATTEMPTS = 3;
+
+  private final FireWriter writer;
   private final LandOwnershipService landOwnershipService;
+  private final OwnershipBackfill ownershipBackfill;
+  private final FireArchiveService archiveService;
+  private final ApplicationEventPublisher events;
+  private final FireChangeLock changeLock;
+  private final int chunkSize;
+
+  private final Timer parseTimer;
+  private final Timer enrichTimer;
+  private final Timer ownershipTimer;
+  private final Timer writeTimer;
+  private final Counter insertedRows;
+  private final Counter updatedRows;
+  private final Counter skippedRows;
+  private final Counter failedRows;
 
-  public DataIngestService(FiresRepo repo, LandOwnershipService landOwnershipService) {
-    this.repo = repo;
+  public DataIngestService(
+      FireWriter writer,
+      LandOwnershipService landOwnershipService,
+      OwnershipBackfill ownershipBackfill,
+      FireArchiveService archiveService,
+      ApplicationEventPublisher events,
+      FireChangeLock changeLock,
+      @Value("${burn.ingest.chunk-size:1000}") int chunkSize,
+      MeterRegistry registry) {
+    this.writer = writer;
     this.landOwnershipService = landOwnershipService;
+    this.ownershipBackfill = ownershipBackfill;
+    this.archiveService = archiveService;
+    this.events = events;
+    this.changeLock = changeLock;
+    this.chunkSize = chunkSize;
+
+    this.parseTimer =
+        Timer.builder("burn.ingest.parse")
+            .description("Time to read one chunk of records from the uploaded CSV")
+            .publishPercentileHistogram()
+            .register(registry);
+    this.enrichTimer =
+        Timer.builder("burn.ingest.enrich")
+            .description("Time to convert one record into a fire")
+            .publishPercentileHistogram()
+            .register(registry);
+    this.ownershipTimer =
+        Timer.builder("burn.ingest.ownership")
+            .description("Time to assign the owners of one chunk of fires from the index or cache")
+            .publishPercentileHistogram()
+            .register(registry);
+    this.writeTimer =
+        Timer.builder("burn.ingest.write")
+            .description("Time to write one chunk of fires to the database")
+            .publishPercentileHistogram()
+            .register(registry);
+    this.insertedRows = registry.counter("burn.ingest.rows", "result", "inserted");
+    this.updatedRows = registry.counter("burn.ingest.rows", "result", "updated");
+    this.skippedRows = registry.counter("burn.ingest.rows", "result", "skipped");
+    this.failedRows = registry.counter("burn.ingest.rows", "result", "failed");
   }
 
-  public int saveFires(List<Record> records) {
+  /**
+   * Parses, enriches and persists records {@code chunkSize} at a time, so only one chunk of
+   * records and fires is held in memory no matter how large the source is. Fires already stored
+   * are updated when their content changed and skipped otherwise, so re-sending a file adds
+   * nothing; the result is the number of fires inserted or updated.
+   */
+  public int saveFires(Iterable<Record> records) {
+    return saveFires(records, new IngestJob());
+  }
+
+  /**
+   * Same as {@link #saveFires(Iterable)}, reporting progress to {@code job}. Records that cannot
+   * be converted are counted as failed and skipped instead of aborting the whole upload, but a
+   * file without one of the expected columns is rejected with an {@link IllegalArgumentException}.
+   */
+  public int saveFires(Iterable<Record> records, IngestJob job) {
     log.debug("Saving new fires records.");
-    final var burns = records.parallelStream().map(this::createFire).collect(toUnmodifiableList());
-    repo.saveAll(burns);
+    final long start = System.nanoTime();
+    final var chunk = new ArrayList<Record>(chunkSize);
+    final Iterator<Record> iterator = records.iterator();
+    FireColumns columns = null;
+    int saved = 0;
+
+    while (true) {
+      // Records are parsed lazily, so reading the chunk is the CSV parse time.
+      final long parseStart = System.nanoTime();
+      while (chunk.size() < chunkSize && iterator.hasNext()) {
+        job.recordParsed();
+        chunk.add(iterator.next());
+      }
+      parseTimer.record(System.nanoTime() - parseStart, TimeUnit.NANOSECONDS);
 
-    return burns.size();
+      if (chunk.isEmpty()) break;
+      if (columns == null) columns = FireColumns.of(chunk.get(0).getMetaData());
+      saved += saveChunk(chunk, columns, job);
+      chunk.clear();
+    }
+
+    final double seconds = (System.nanoTime() - start) / 1e9;
+    log.info("Ingested {} fires in {} s ({} rows/s).", saved, seconds, (long) (saved / seconds));
+    return saved;
   }
 
-  private Fire createFire(final Record fireRecord) {
-    log.debug("Ingesting record {}", fireRecord);
+  private int saveChunk(List<Record> records, FireColumns columns, IngestJob job) {
+    final var burns =
+        records
+            .parallelStream()
+            .map(record -> enrich(record, columns, job))
+            .filter(Objects::nonNull)
+            .collect(toUnmodifiableList());
 
-    final var fire = new Fire();
-    fire.setName(fireRecord.getString("name"));
-    fire.setAcres(Double.parseDouble(fireRecord.getString("acres")));
-    fire.setLatitude(Double.parseDouble(fireRecord.getString("latitude")));
-    fire.setLongitude(Double.parseDouble(fireRecord.getString("longitude")));
-    fire.setBurnType(fireRecord.getString("burn_type"));
-    fire.setTreatmentType(fireRecord.getString("treatment_type"));
-    fire.setCountyUnitId(fireRecord.getString("county_unit_ID"));
-    fire.setCounty(fireRecord.getString("county"));
-    fire.setSource(fireRecord.getString("source"));
-    fire.setEscaped(Boolean.parseBoolean(fireRecord.getString("escaped")));
-    fire.setOwner(
-        landOwnershipService.getOwnershipFromCoordinate(fire.getLatitude(), fire.getLongitude()));
+    // Fires that are already stored unchanged are dropped before their owners are assigned.
+    final var classified = writer.classify(burns);
+    ownershipTimer.record(() -> landOwnershipService.assignOwners(classified.getChanged()));
+    final var changes =
+        changeLock.write(
+            () -> {
+              final var written = writeTimer.record(() -> write(burns, classified));
+              if (!written.getInserts().isEmpty())
+                events.publishEvent(new FiresSavedEvent(written.getInserts()));
+              if (!written.getUpdates().isEmpty())
+                events.publishEvent(
+                    new FiresUpdatedEvent(written.getUpdates(), written.getPrevious()));
+              return written;
+            });
+    final var changed = changes.getChanged();
+    // Owners missing from the cache are looked up once the chunk is stored, while the next one is
+    // parsed.
+    ownershipBackfill.resolve(
+        changed.stream()
+            .filter(fire -> Boolean.TRUE.equals(fire.getOwnershipPending()))
+            .collect(toUnmodifiableList()));
+
+    job.recordChanges(changes);
+    insertedRows.increment(changes.getInserts().size());
+    updatedRows.increment(changes.getUpdates().size());
+    skippedRows.increment(changes.getSkipped());
+
+    log.debug(
+        "Saved chunk of {} fires: {} inserted, {} updated, {} skipped.",
+        burns.size(),
+        changes.getInserts().size(),
+        changes.getUpdates().size(),
+        changes.getSkipped());
+    return changed.size();
+  }
 
+  /**
+   * A concurrent upload can insert one of the keys between classifying and writing the chunk.
+   * Outside PostgreSQL that rolls the write back, and classifying again turns those fires into
+   * updates or skips; {@link FireWriter#write} does the same within the transaction on PostgreSQL.
+   * Every fire written by a retry was changed in the first classification, so it already has its
+   * owner.
+   */
+  private FireChanges write(List<Fire> burns, FireChanges classified) {
+    var changes = classified;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        writer.write(changes);
+        return changes;
+      } catch (RuntimeException e) {
+        if (attempt == WRITE_ATTEMPTS || !FireWriter.isDuplicateKey(e)) throw e;
+        log.debug("A concurrent upload wrote fires of this chunk, classifying it again.");
+        for (Fire fire : burns) fire.setId(0);
+        changes = writer.classify(burns);
+      }
+    }
+  }
+
+  private Fire enrich(final Record fireRecord, FireColumns columns, IngestJob job) {
+    final long start = System.nanoTime();
     try {
-      final var fireDate = Calendar.getInstance();
-      fireDate.setTime(new SimpleDateFormat("yyyy-MM-dd").parse(fireRecord.getString("date")));
-      fire.setYear(fireDate.get(Calendar.YEAR));
-      fire.setMonth(fireDate.get(Calendar.MONTH));
-      fire.setDay(fireDate.get(Calendar.DAY_OF_MONTH));
-    } catch (ParseException e) {
-      log.warn("Record : " + fireRecord.toString());
-      log.warn("Date is Invalid. " + e.getMessage());
+      final var fire = createFire(fireRecord, columns);
+      if (archiveService.isArchived(fire.getYear()))
+        throw new IllegalArgumentException("year " + fire.getYear() + " is archived");
+      job.recordEnriched();
+      return fire;
+    } catch (RuntimeException e) {
+      log.warn("Skipping invalid record {}: {}", fireRecord, e.getMessage());
+      job.recordFailed();
+      failedRows.increment();
+      return null;
+    } finally {
+      enrichTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+    }
+  }
+
+  /** Iterates the records of an upload in the CSV layout, parsing them as they are read. */
+  public static IterableResult<Record, ParsingContext> readRecords(InputStream data) {
+    CsvParserSettings csvSettings = new CsvParserSettings();
+    csvSettings.setHeaderExtractionEnabled(true);
+    CsvParser parser = new CsvParser(csvSettings);
+    return parser.iterateRecords(data);
+  }
+
+  // Package-private for the jmh benchmarks.
+  Fire createFire(final Record fireRecord, FireColumns columns) {
+    final var values = fireRecord.getValues();
+
+    final var fire = new Fire();
+    fire.setName(FireColumns.get(values, columns.name));
+    fire.setAcres(FastParsers.parseDouble(FireColumns.get(values, columns.acres)));
+    fire.setLatitude(FastParsers.parseDouble(FireColumns.get(values, columns.latitude)));
+    fire.setLongitude(FastParsers.parseDouble(FireColumns.get(values, columns.longitude)));
+    fire.setBurnType(FireColumns.get(values, columns.burnType));
+    fire.setTreatmentType(FireColumns.get(values, columns.treatmentType));
+    fire.setCountyUnitId(FireColumns.get(values, columns.countyUnitId));
+    fire.setCounty(FireColumns.get(values, columns.county));
+    fire.setSource(FireColumns.get(values, columns.source));
+    fire.setEscaped(Boolean.parseBoolean(FireColumns.get(values, columns.escaped)));
+
+    final var date = FireColumns.get(values, columns.date);
+    final int yearMonthDay = FastParsers.parseIsoDate(date);
+    if (yearMonthDay < 0) {
+      log.warn("Date '{}' is invalid in record {}", date, fireRecord);
+    } else {
+      fire.setYear(yearMonthDay / 10000);
+      fire.setMonth(yearMonthDay / 100 % 100);
+      fire.setDay(yearMonthDay % 100);
     }
+    fire.updateKeys();
 
     return fire;
   }
@@ -0,0 +1,33 @@
+package edu.uci.banerjee.burnserver.services;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Version of {@code fires} as a whole, kept in {@code dataset_version} so it survives restarts. It
+ * is bumped after every committed change, so two reads at the same version see the same rows.
+ */
+@Component
+public class DatasetVersion {
+  private final JdbcTemplate jdbc;
+  private final AtomicLong version;
+
+  public DatasetVersion(JdbcTemplate jdbc) {
+    this.jdbc = jdbc;
+    this.version =
+        new AtomicLong(jdbc.queryForObject("SELECT version FROM dataset_version", Long.class));
+  }
+
+  public long get() {
+    return version.get();
+  }
+
+  /** Moves to a new version; concurrent bumps never store an older one. */
+  public long bump() {
+    final long next = version.incrementAndGet();
+    jdbc.update("UPDATE dataset_version SET version = ? WHERE version < ?", next, next);
+    return next;
+  }
+}
@@ -0,0 +1,256 @@
+package edu.uci.banerjee.burnserver.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Non-blocking client for the CAL FIRE ownership feature service. A batch of points is one
+ * multipoint query for the owners of the polygons touching any of them, without their geometry.
+ * A batch that touches none is private land; one that does is split in halves until every part
+ * touches none or is a single point, whose polygon owns it. Private land costs one request per
+ * batch and public land about two per point. Requests are capped in flight and in rate, time out,
+ * and failures are retried with exponential backoff.
+ */
+@Component
+@Slf4j
+public class EsriOwnershipClient {
+  // Utilizes data from
+  // https://hub.arcgis.com/datasets/CALFIRE-Forestry::california-land-ownership/about
+  // Read up on usage at
+  // https://hub.arcgis.com/datasets/CALFIRE-Forestry::california-land-ownership/api
+  static final String QUERY_URL =
+      "https://egis.fire.ca.gov/arcgis/rest/services/FRAP/ownership/FeatureServer/0/query";
+  private static final String OWNER_FIELD = "OWN_LEVEL";
+  private static final String PRIVATE_LAND = "Private";
+
+  private final HttpClient http;
+  private final JsonMapper json = new JsonMapper();
+  private final URI queryUri;
+  private final Semaphore permits;
+  private final Queue<Runnable> waiting = new ConcurrentLinkedQueue<>();
+  private final long intervalNanos;
+  private final AtomicLong nextSlot = new AtomicLong(System.nanoTime());
+  private final Duration timeout;
+  private final int maxAttempts;
+  private final Duration initialBackoff;
+
+  public EsriOwnershipClient(
+      @Value("${burn.ownership.remote.url:" + QUERY_URL + "}") String url,
+      @Value("${burn.ownership.remote.max-concurrency:4}") int maxConcurrency,
+      @Value("${burn.ownership.remote.requests-per-second:10}") double requestsPerSecond,
+      @Value("${burn.ownership.remote.timeout:PT10S}") Duration timeout,
+      @Value("${burn.ownership.remote.max-attempts:4}") int maxAttempts,
+      @Value("${burn.ownership.remote.initial-backoff:PT0.5S}") Duration initialBackoff) {
+    this.http = HttpClient.newBuilder().connectTimeout(timeout).build();
+    this.queryUri = URI.create(url);
+    this.permits = new Semaphore(maxConcurrency);
+    this.intervalNanos = requestsPerSecond > 0 ? (long) (1e9 / requestsPerSecond) : 0;
+    this.timeout = timeout;
+    this.maxAttempts = maxAttempts;
+    this.initialBackoff = initialBackoff;
+  }
+
+  /**
+   * Owners of the points in order; a point no polygon covers is Private. Never blocks: requests
+   * past the maximum in flight wait in a queue, and the result completes exceptionally once every
+   * attempt of one of its requests failed.
+   */
+  public CompletableFuture<List<String>> findOwners(double[] lats, double[] lons) {
+    return resolve(lats, lons, 0, lats.length);
+  }
+
+  private CompletableFuture<List<String>> resolve(double[] lats, double[] lons, int from, int to) {
+    return attempt(lats, lons, from, to, 1)
+        .thenCompose(
+            owners -> {
+              if (owners.isEmpty())
+                return CompletableFuture.completedFuture(
+                    Collections.nCopies(to - from, PRIVATE_LAND));
+              if (to - from == 1) return CompletableFuture.completedFuture(owners.subList(0, 1));
+
+              final int mid = (from + to) >>> 1;
+              return resolve(lats, lons, from, mid)
+                  .thenCombine(
+                      resolve(lats, lons, mid, to),
+                      (first, second) -> {
+                        final var all = new ArrayList<String>(first);
+                        all.addAll(second);
+                        return (List<String>) all;
+                      });
+            });
+  }
+
+  private CompletableFuture<List<String>> attempt(
+      double[] lats, double[] lons, int from, int to, int attempt) {
+    return query(lats, lons, from, to)
+        .handle(
+            (owners, error) -> {
+              if (error == null) return CompletableFuture.completedFuture(owners);
+              final var cause = unwrap(error);
+              if (attempt >= maxAttempts || !retryable(cause))
+                return CompletableFuture.<List<String>>failedFuture(cause);
+
+              final long backoff = initialBackoff.toMillis() << (attempt - 1);
+              log.debug("Ownership query attempt {} failed, retrying in {} ms.", attempt, backoff);
+              final Executor later =
+                  CompletableFuture.delayedExecutor(backoff, TimeUnit.MILLISECONDS);
+              return CompletableFuture.supplyAsync(() -> attempt + 1, later)
+                  .thenCompose(next -> attempt(lats, lons, from, to, next));
+            })
+        .thenCompose(Function.identity());
+  }
+
+  /** Owners of the polygons touching any of the points, in the order the service returns them. */
+  private CompletableFuture<List<String>> query(double[] lats, double[] lons, int from, int to) {
+    final var request =
+        HttpRequest.newBuilder(queryUri)
+            .timeout(timeout)
+            .header("Content-Type", "application/x-www-form-urlencoded")
+            .header("Accept", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(form(lats, lons, from, to)))
+            .build();
+
+    return limited(
+            () -> {
+              final long delay = reserveSlot();
+              final Executor executor =
+                  delay > 0
+                      ? CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+                      : Runnable::run;
+              return CompletableFuture.supplyAsync(() -> request, executor)
+                  .thenCompose(r -> http.sendAsync(r, HttpResponse.BodyHandlers.ofByteArray()));
+            })
+        .thenApply(this::owners);
+  }
+
+  /** Runs {@code request} once it holds one of the permits, which it keeps until it completes. */
+  private <T> CompletableFuture<T> limited(Supplier<CompletableFuture<T>> request) {
+    final var result = new CompletableFuture<T>();
+    waiting.add(
+        () -> {
+          CompletableFuture<T> started;
+          try {
+            started = request.get();
+          } catch (RuntimeException e) {
+            started = CompletableFuture.failedFuture(e);
+          }
+          started.whenComplete(
+              (value, error) -> {
+                permits.release();
+                drain();
+                if (error != null) result.completeExceptionally(error);
+                else result.complete(value);
+              });
+        });
+    drain();
+    return result;
+  }
+
+  // A request queued while another thread held the last permit is started by whichever thread
+  // releases it, so no request waits while a permit is free.
+  private void drain() {
+    while (!waiting.isEmpty() && permits.tryAcquire()) {
+      final var next = waiting.poll();
+      if (next == null) permits.release();
+      else next.run();
+    }
+  }
+
+  /** Spaces requests {@code intervalNanos} apart; returns how long this one has to wait. */
+  private long reserveSlot() {
+    if (intervalNanos == 0) return 0;
+    final long now = System.nanoTime();
+    final long slot = nextSlot.getAndUpdate(next -> Math.max(next, now) + intervalNanos);
+    return Math.max(0, slot - now);
+  }
+
+  private List<String> owners(HttpResponse<byte[]> response) {
+    if (response.statusCode() != 200)
+      throw new RemoteException("HTTP " + response.statusCode(), response.statusCode());
+
+    final JsonNode body;
+    try {
+      body = json.readTree(response.body());
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    if (body.has("error")) {
+      final var error = body.path("error");
+      throw new RemoteException(error.path("message").asText(), error.path("code").asInt());
+    }
+
+    // A response cut off at the service's record limit still tells whether any polygon matched.
+    final var owners = new ArrayList<String>();
+    for (JsonNode feature : body.path("features")) {
+      final var owner = feature.path("attributes").path(OWNER_FIELD).asText(null);
+      if (owner != null) owners.add(owner);
+    }
+    return owners;
+  }
+
+  private static String form(double[] lats, double[] lons, int from, int to) {
+    final var points = new StringBuilder("{\"points\":[");
+    for (int i = from; i < to; i++) {
+      if (i > from) points.append(',');
+      points.append('[').append(lons[i]).append(',').append(lats[i]).append(']');
+    }
+    points.append("],\"spatialReference\":{\"wkid\":4326}}");
+
+    return "where=1%3D1&outFields="
+        + OWNER_FIELD
+        + "&geometryType=esriGeometryMultipoint&inSR=4326"
+        + "&spatialRel=esriSpatialRelIntersects&returnGeometry=false&f=json&geometry="
+        + URLEncoder.encode(points.toString(), StandardCharsets.UTF_8);
+  }
+
+  private static Throwable unwrap(Throwable error) {
+    return error instanceof CompletionException && error.getCause() != null
+        ? error.getCause()
+        : error;
+  }
+
+  // Timeouts and connection failures surface as IOExceptions; the service itself reports
+  // overload as 429 or 5xx, either as the HTTP status or as the code of an error body.
+  private static boolean retryable(Throwable error) {
+    if (error instanceof RemoteException) {
+      final int status = ((RemoteException) error).status;
+      return status == 429 || status >= 500;
+    }
+    return error instanceof IOException;
+  }
+
+  private static class RemoteException extends RuntimeException {
+    private final int status;
+
+    RemoteException(String message, int status) {
+      super("Ownership service error " + status + ": " + message);
+      this.status = status;
+    }
+  }
+}
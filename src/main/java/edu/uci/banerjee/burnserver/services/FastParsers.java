@@ -0,0 +1,89 @@
+package edu.uci.banerjee.burnserver.services;
+
+import java.time.Month;
+import java.time.Year;
+
+/** Parsers for the numeric and date upload columns that skip the general purpose paths. */
+final class FastParsers {
+  private static final int MAX_EXACT_DIGITS = 15;
+  private static final double[] POWERS_OF_TEN = {
+    1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16,
+    1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+  };
+
+  private FastParsers() {}
+
+  /**
+   * Same result as {@link Double#parseDouble}. Plain decimals of at most 15 significant digits are
+   * parsed without allocating: both the digits and the power of ten are exact doubles, so a single
+   * division rounds correctly. Anything else, like exponents or padding, takes the JDK path.
+   */
+  static double parseDouble(String value) {
+    final int length = value.length();
+    int i = 0;
+    boolean negative = false;
+    if (length > 0 && (value.charAt(0) == '-' || value.charAt(0) == '+')) {
+      negative = value.charAt(0) == '-';
+      i++;
+    }
+
+    long digits = 0;
+    int significant = 0;
+    int scale = -1;
+    boolean anyDigit = false;
+    for (; i < length; i++) {
+      final char c = value.charAt(i);
+      if (c >= '0' && c <= '9') {
+        anyDigit = true;
+        if (scale >= 0) scale++;
+        if (digits == 0 && c == '0') continue;
+        if (++significant > MAX_EXACT_DIGITS) return Double.parseDouble(value);
+        digits = digits * 10 + (c - '0');
+      } else if (c == '.' && scale < 0) {
+        scale = 0;
+      } else {
+        return Double.parseDouble(value);
+      }
+    }
+    if (!anyDigit || scale >= POWERS_OF_TEN.length) return Double.parseDouble(value);
+
+    final double result = scale > 0 ? digits / POWERS_OF_TEN[scale] : digits;
+    return negative ? -result : result;
+  }
+
+  /**
+   * Reads the {@code yyyy-M-d} date at the start of {@code value}, ignoring anything after the day
+   * such as a time, as {@code year * 10000 + month * 100 + day} with a 1-based month. Returns -1
+   * when there is no valid date.
+   */
+  static int parseIsoDate(String value) {
+    if (value == null) return -1;
+    final int length = value.length();
+
+    int i = 0;
+    int year = 0;
+    for (; i < length && i < 4 && isDigit(value.charAt(i)); i++)
+      year = year * 10 + (value.charAt(i) - '0');
+    if (i != 4 || i >= length || value.charAt(i++) != '-') return -1;
+
+    int start = i;
+    int month = 0;
+    for (; i < length && i - start < 2 && isDigit(value.charAt(i)); i++)
+      month = month * 10 + (value.charAt(i) - '0');
+    if (i == start || i >= length || value.charAt(i++) != '-') return -1;
+
+    start = i;
+    int day = 0;
+    for (; i < length && i - start < 2 && isDigit(value.charAt(i)); i++)
+      day = day * 10 + (value.charAt(i) - '0');
+    if (i == start || (i < length && isDigit(value.charAt(i)))) return -1;
+
+    if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year)))
+      return -1;
+    return year * 10000 + month * 100 + day;
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+}
@@ -0,0 +1,177 @@
+package edu.uci.banerjee.burnserver.services;
+
+import com.zaxxer.hikari.HikariDataSource;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import javax.sql.DataSource;
+import java.io.BufferedInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Ingests uploaded files in parallel, one {@link IngestJob} per CSV. A file may be a plain or
+ * gzipped CSV, or a zip archive of them. Files and archive entries are decompressed as streams and
+ * never copied to memory or disk: a zip archive can only be read front to back, so one worker
+ * ingests its entries in order while the other uploads run on the remaining workers.
+ */
+@Service
+@Slf4j
+public class FileIngestService {
+  private static final int GZIP_MAGIC = 0x1f8b;
+  private static final int ZIP_MAGIC = 0x504b0304;
+
+  private final DataIngestService dataIngestService;
+  private final IngestJobService ingestJobService;
+  private final int workers;
+  private final ExecutorService pool;
+
+  public FileIngestService(
+      DataIngestService dataIngestService,
+      IngestJobService ingestJobService,
+      DataSource dataSource,
+      @Value("${burn.ingest.file-workers:0}") int workers) {
+    this.dataIngestService = dataIngestService;
+    this.ingestJobService = ingestJobService;
+    this.workers = workers > 0 ? workers : defaultWorkers(dataSource);
+
+    final var threadCount = new AtomicInteger();
+    this.pool =
+        Executors.newFixedThreadPool(
+            this.workers, task -> new Thread(task, "file-ingest-" + threadCount.incrementAndGet()));
+    log.info("Ingesting uploaded files on {} workers.", this.workers);
+  }
+
+  /**
+   * Ingests every CSV in {@code files} and returns their jobs once all have finished. The jobs can
+   * be followed through {@link IngestJobService#find} while they run; a CSV that fails is reported
+   * as a failed job without stopping the others.
+   */
+  public List<IngestJob> ingest(List<Resource> files) throws IOException {
+    // The jobs of each file, in upload order; an archive adds its jobs as its worker reaches them.
+    final var jobsByFile = new ArrayList<List<IngestJob>>(files.size());
+    final var tasks = new ArrayList<CompletableFuture<Void>>();
+
+    for (Resource file : files) {
+      final var name = file.getFilename();
+      final var jobs = new ArrayList<IngestJob>();
+      jobsByFile.add(jobs);
+      // The worker reads and closes the stream.
+      final var in = new BufferedInputStream(file.getInputStream(), 1 << 16);
+      if (magic(in, 4) == ZIP_MAGIC) {
+        tasks.add(CompletableFuture.runAsync(() -> runArchive(name, in, jobs), pool));
+      } else {
+        final var job = track(name, jobs);
+        tasks.add(CompletableFuture.runAsync(() -> run(job, in), pool));
+      }
+    }
+
+    CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+    final var jobs = new ArrayList<IngestJob>();
+    for (List<IngestJob> fileJobs : jobsByFile) jobs.addAll(fileJobs);
+    return jobs;
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdown();
+  }
+
+  private IngestJob track(String name, List<IngestJob> jobs) {
+    final var job = new IngestJob(name);
+    jobs.add(job);
+    ingestJobService.track(job);
+    return job;
+  }
+
+  /**
+   * Ingests the CSV entries of a zip archive one after another, each straight from the archive
+   * stream. An archive that cannot be read further is reported as a failed job of its own.
+   */
+  private void runArchive(String name, InputStream in, List<IngestJob> jobs) {
+    try (var zip = new ZipInputStream(in)) {
+      for (ZipEntry entry; (entry = zip.getNextEntry()) != null; ) {
+        if (!isCsv(entry)) continue;
+        // Closing the entry's CSV must not close the archive.
+        run(
+            track(name + "!/" + entry.getName(), jobs),
+            new FilterInputStream(zip) {
+              @Override
+              public void close() {}
+            });
+      }
+    } catch (IOException | RuntimeException e) {
+      final var job = track(name, jobs);
+      job.start();
+      job.fail(e);
+      log.error("Reading archive {} failed.", name, e);
+    }
+  }
+
+  private void run(IngestJob job, InputStream data) {
+    job.start();
+    try (var csv = decompress(data)) {
+      dataIngestService.saveFires(DataIngestService.readRecords(csv), job);
+      job.succeed();
+      log.info("Ingested {}: {} fires saved.", job.getName(), job.getRowsPersisted());
+    } catch (IOException | RuntimeException e) {
+      job.fail(e);
+      log.error("Ingest of {} failed.", job.getName(), e);
+    }
+  }
+
+  private static InputStream decompress(InputStream data) throws IOException {
+    final var in = data.markSupported() ? data : new BufferedInputStream(data, 1 << 16);
+    return magic(in, 2) == GZIP_MAGIC ? new GZIPInputStream(in, 1 << 16) : in;
+  }
+
+  /** The first {@code length} bytes as a big-endian int, leaving the stream where it was. */
+  private static int magic(InputStream in, int length) throws IOException {
+    in.mark(length);
+    final var bytes = in.readNBytes(length);
+    in.reset();
+
+    int magic = 0;
+    for (byte b : bytes) magic = (magic << 8) | (b & 0xff);
+    return bytes.length == length ? magic : -1;
+  }
+
+  // Skips folders, hidden files and the resource forks macOS adds to archives it creates.
+  private static boolean isCsv(ZipEntry entry) {
+    final var path = entry.getName();
+    final var fileName = path.substring(path.lastIndexOf('/') + 1).toLowerCase(Locale.ROOT);
+    return !entry.isDirectory()
+        && !path.startsWith("__MACOSX/")
+        && !fileName.startsWith(".")
+        && (fileName.endsWith(".csv") || fileName.endsWith(".csv.gz"));
+  }
+
+  // Every worker holds a connection while it writes a chunk; one is left for the read endpoints.
+  private static int defaultWorkers(DataSource dataSource) {
+    final int cores = Runtime.getRuntime().availableProcessors();
+    try {
+      if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        final int connections = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+        return Math.max(1, Math.min(cores, connections - 1));
+      }
+    } catch (SQLException e) {
+      log.debug("Could not read the connection pool size.", e);
+    }
+    return cores;
+  }
+}
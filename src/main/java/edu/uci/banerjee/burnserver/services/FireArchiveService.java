@@ -0,0 +1,227 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.rest.core.annotation.HandleBeforeCreate;
+import org.springframework.data.rest.core.annotation.HandleBeforeDelete;
+import org.springframework.data.rest.core.annotation.HandleBeforeSave;
+import org.springframework.data.rest.core.annotation.RepositoryEventHandler;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Year;
+import java.util.ArrayList;
+
+/**
+ * Historical tiering of {@code fires}. Archiving every year before a boundary precomputes their
+ * statistics cube cells into {@code fire_archive_statistics} and makes those years read-only, so
+ * statistics no longer aggregate archived rows and ingest rejects fires dated before it.
+ *
+ * <p>When {@code V8__PartitionFires} has partitioned {@code fires} by decade of {@code year}, on
+ * PostgreSQL with {@code burn.partitioning.enabled}, the year bounds of a filter prune whole
+ * partitions. Archiving there also compacts the archived decades into one {@code fires_archive}
+ * partition that a trigger keeps read-only. Other databases keep a single table and rely on the
+ * year indexes.
+ *
+ * <p>Created at startup even with lazy initialization, since the partitions and the read-only
+ * checks have to be in place before the first write.
+ */
+@Service
+@Lazy(false)
+@Slf4j
+@DependsOn("entityManagerFactory")
+@RepositoryEventHandler
+public class FireArchiveService {
+  private static final String DECADE_PARTITION = "fires_[0-9]{4}s";
+
+  private final JdbcTemplate jdbc;
+  private final TransactionTemplate transaction;
+  private final boolean partitioned;
+  private volatile Integer archivedBefore;
+
+  public FireArchiveService(DataSource dataSource) throws SQLException {
+    this.jdbc = new JdbcTemplate(dataSource);
+    this.transaction = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+
+    final boolean postgres;
+    try (Connection conn = dataSource.getConnection()) {
+      postgres = "PostgreSQL".equals(conn.getMetaData().getDatabaseProductName());
+    }
+    this.partitioned = postgres && isPartitionedTable();
+
+    this.archivedBefore =
+        jdbc.query(
+            "SELECT archived_before FROM fire_archive",
+            rs -> rs.next() ? rs.getInt(1) : null);
+    if (partitioned) addDecadePartitions(Year.now().getValue(), Year.now().getValue() + 10);
+  }
+
+  /** Whether {@code fires} is partitioned, so unique indexes also cover {@code year}. */
+  public boolean isPartitioned() {
+    return partitioned;
+  }
+
+  /** First year that is not archived, or null when nothing is. */
+  public Integer getArchivedBefore() {
+    return archivedBefore;
+  }
+
+  public boolean isArchived(int year) {
+    final var before = archivedBefore;
+    return before != null && year < before;
+  }
+
+  /**
+   * Archives every year before {@code before}: their statistics cells are stored and the years
+   * become read-only. On a partitioned table {@code before} has to start a decade, and the decade
+   * partitions below it are compacted into the archive partition. Statistics do not change, so
+   * cached answers and the statistics cube stay valid.
+   *
+   * @throws IllegalArgumentException when {@code before} does not move the boundary forward or,
+   *     when partitioned, does not start a decade.
+   */
+  public synchronized Summary archive(int before) {
+    final var previous = archivedBefore;
+    if (previous != null && before <= previous)
+      throw new IllegalArgumentException("Years before " + previous + " are already archived.");
+    if (partitioned && before % 10 != 0)
+      throw new IllegalArgumentException("Partitions are per decade, archive before a decade.");
+
+    final long start = System.currentTimeMillis();
+    final var summary =
+        transaction.execute(
+            status -> {
+              final int from = previous == null ? Integer.MIN_VALUE : previous;
+              final int cells =
+                  jdbc.update(
+                      "INSERT INTO fire_archive_statistics (source, county, burn_type, "
+                          + "treatment_type, year, month, owner, escaped, fire_count, total_acres, "
+                          + "min_acres, max_acres) SELECT source, county, burn_type, "
+                          + "treatment_type, year, month, owner, escaped, COUNT(*), SUM(acres), "
+                          + "MIN(acres), MAX(acres) FROM fires WHERE year >= ? AND year < ? "
+                          + "GROUP BY source, county, burn_type, treatment_type, year, month, "
+                          + "owner, escaped",
+                      from,
+                      before);
+              final var fires =
+                  jdbc.queryForObject(
+                      "SELECT COUNT(*) FROM fires WHERE year >= ? AND year < ?",
+                      Long.class,
+                      from,
+                      before);
+              jdbc.update("DELETE FROM fire_archive");
+              jdbc.update("INSERT INTO fire_archive (archived_before) VALUES (?)", before);
+              if (partitioned) compactPartitions(before);
+              return new Summary(before, fires, cells);
+            });
+
+    archivedBefore = before;
+    log.info(
+        "Archived {} fires before {} into {} statistics cells in {} ms.",
+        summary.getFires(),
+        before,
+        summary.getCells(),
+        System.currentTimeMillis() - start);
+    return summary;
+  }
+
+  // Writes through the Spring Data REST /fires resource do not go through the ingest path.
+  @HandleBeforeCreate
+  @HandleBeforeSave
+  @HandleBeforeDelete
+  public void rejectArchivedWrite(Fire fire) {
+    if (isArchived(fire.getYear()))
+      throw new ResponseStatusException(
+          HttpStatus.CONFLICT, "Fires before " + archivedBefore + " are archived and read-only.");
+  }
+
+  private boolean isPartitionedTable() {
+    return Boolean.TRUE.equals(
+        jdbc.queryForObject(
+            "SELECT relkind = 'p' FROM pg_class WHERE oid = 'fires'::regclass", Boolean.class));
+  }
+
+  // V8__PartitionFires creates the partitions up to the next decade when it partitions the table.
+  // A partition cannot be added while the default partition holds rows for its range, so later
+  // decades are added ahead of time at startup.
+  private void addDecadePartitions(int fromYear, int toYear) {
+    for (int decade = Math.floorDiv(fromYear, 10) * 10; decade <= toYear; decade += 10) {
+      if (archivedBefore != null && decade < archivedBefore) continue;
+      try {
+        jdbc.execute(
+            String.format(
+                "CREATE TABLE IF NOT EXISTS fires_%ds PARTITION OF fires "
+                    + "FOR VALUES FROM (%d) TO (%d)",
+                decade, decade, decade + 10));
+      } catch (DataAccessException e) {
+        log.warn("Could not add the partition for the {}s.", decade, e);
+      }
+    }
+  }
+
+  /**
+   * Moves the decade partitions below {@code before}, the previous archive partition and any
+   * matching rows of the default partition into one new archive partition in (year, id) order.
+   */
+  private void compactPartitions(int before) {
+    final var sources = new ArrayList<String>();
+    for (String partition :
+        jdbc.queryForList(
+            "SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = 'fires'::regclass",
+            String.class)) {
+      final boolean oldDecade =
+          partition.matches(DECADE_PARTITION)
+              && Integer.parseInt(partition.substring(6, 10)) + 10 <= before;
+      if (oldDecade || partition.equals("fires_archive")) sources.add(partition);
+    }
+
+    jdbc.execute("CREATE TABLE fires_archive_new (LIKE fires INCLUDING DEFAULTS)");
+    for (String partition : sources) {
+      jdbc.execute("ALTER TABLE fires DETACH PARTITION " + partition);
+    }
+    final var union = new StringBuilder("SELECT * FROM fires_default WHERE FALSE");
+    for (String partition : sources) union.append(" UNION ALL SELECT * FROM ").append(partition);
+    jdbc.execute(
+        "INSERT INTO fires_archive_new SELECT * FROM (" + union + ") archived ORDER BY year, id");
+    jdbc.update(
+        "WITH moved AS (DELETE FROM fires_default WHERE year < ? RETURNING *) "
+            + "INSERT INTO fires_archive_new SELECT * FROM moved",
+        before);
+    for (String partition : sources) jdbc.execute("DROP TABLE " + partition);
+
+    jdbc.execute("ALTER TABLE fires_archive_new RENAME TO fires_archive");
+    jdbc.execute(
+        "ALTER TABLE fires ATTACH PARTITION fires_archive FOR VALUES FROM (MINVALUE) TO ("
+            + before
+            + ")");
+    jdbc.execute(
+        "CREATE OR REPLACE FUNCTION fires_archive_read_only() RETURNS trigger AS $$ BEGIN "
+            + "RAISE EXCEPTION 'Archived fires are read-only.'; END $$ LANGUAGE plpgsql");
+    jdbc.execute(
+        "CREATE TRIGGER fires_archive_read_only BEFORE INSERT OR UPDATE OR DELETE "
+            + "ON fires_archive FOR EACH ROW EXECUTE PROCEDURE fires_archive_read_only()");
+    jdbc.execute("ANALYZE fires_archive");
+    log.info("Compacted {} into the archive partition.", sources);
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Summary {
+    private final int archivedBefore;
+    private final long fires;
+    private final int cells;
+  }
+}
@@ -0,0 +1,145 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Writes fires as they are visited into a compact columnar stream, {@value #BATCH_SIZE} rows per
+ * batch, so a download never holds more than one batch of rows.
+ *
+ * <p>The stream is big-endian: int32 magic {@code BURN} and int16 format version, then batches,
+ * then an int32 0. A batch is an int32 row count n; an int32 count of strings new to the stream,
+ * each as modified UTF-8 ({@link DataOutputStream#writeUTF}); then the columns in order: id
+ * int32[n], acres, latitude, longitude float64[n], year, month, day int32[n], severity float64[n],
+ * escaped int8[n], name as n strings each prefixed with its int32 UTF-8 length, and source, county,
+ * countyUnitId, burnType, treatmentType, owner as int32[n] indexes into the strings sent so far.
+ * Null is -1 for the int and int8 columns and the name length, and NaN for severity.
+ *
+ * <p>Names are nearly unique per fire, so they are written in each batch rather than added to the
+ * dictionary, which would otherwise grow to every name in the download.
+ */
+public class FireBatchEncoder implements Consumer<Fire>, AutoCloseable {
+  public static final int MAGIC = 0x4255524E;
+  public static final short VERSION = 2;
+  static final int BATCH_SIZE = 4096;
+  private static final int NULL = -1;
+
+  private final DataOutputStream out;
+  private final Map<String, Integer> dictionary = new HashMap<>();
+  private final List<String> newStrings = new ArrayList<>();
+
+  private int size;
+  private final int[] ids = new int[BATCH_SIZE];
+  private final double[] acres = new double[BATCH_SIZE];
+  private final double[] latitudes = new double[BATCH_SIZE];
+  private final double[] longitudes = new double[BATCH_SIZE];
+  private final int[] years = new int[BATCH_SIZE];
+  private final int[] months = new int[BATCH_SIZE];
+  private final int[] days = new int[BATCH_SIZE];
+  private final double[] severities = new double[BATCH_SIZE];
+  private final byte[] escaped = new byte[BATCH_SIZE];
+  private final String[] names = new String[BATCH_SIZE];
+  private final int[][] strings = new int[6][BATCH_SIZE];
+
+  public FireBatchEncoder(OutputStream out) {
+    this.out = new DataOutputStream(new BufferedOutputStream(out, 1 << 16));
+    try {
+      this.out.writeInt(MAGIC);
+      this.out.writeShort(VERSION);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  @Override
+  public void accept(Fire fire) {
+    ids[size] = fire.getId();
+    acres[size] = fire.getAcres();
+    latitudes[size] = fire.getLatitude();
+    longitudes[size] = fire.getLongitude();
+    years[size] = fire.getYear();
+    months[size] = fire.getMonth() == null ? NULL : fire.getMonth();
+    days[size] = fire.getDay() == null ? NULL : fire.getDay();
+    severities[size] = fire.getSeverity() == null ? Double.NaN : fire.getSeverity();
+    escaped[size] = fire.getEscaped() == null ? NULL : (byte) (fire.getEscaped() ? 1 : 0);
+    names[size] = fire.getName();
+    strings[0][size] = code(fire.getSource());
+    strings[1][size] = code(fire.getCounty());
+    strings[2][size] = code(fire.getCountyUnitId());
+    strings[3][size] = code(fire.getBurnType());
+    strings[4][size] = code(fire.getTreatmentType());
+    strings[5][size] = code(fire.getOwner());
+
+    if (++size == BATCH_SIZE) flushBatch();
+  }
+
+  /** Writes the last partial batch and the end marker; the underlying stream stays open. */
+  @Override
+  public void close() {
+    flushBatch();
+    try {
+      out.writeInt(0);
+      out.flush();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  private int code(String value) {
+    if (value == null) return NULL;
+    return dictionary.computeIfAbsent(
+        value,
+        v -> {
+          newStrings.add(v);
+          return dictionary.size();
+        });
+  }
+
+  private void flushBatch() {
+    if (size == 0) return;
+    try {
+      out.writeInt(size);
+      out.writeInt(newStrings.size());
+      for (String value : newStrings) out.writeUTF(value);
+      newStrings.clear();
+
+      for (int i = 0; i < size; i++) out.writeInt(ids[i]);
+      for (int i = 0; i < size; i++) out.writeDouble(acres[i]);
+      for (int i = 0; i < size; i++) out.writeDouble(latitudes[i]);
+      for (int i = 0; i < size; i++) out.writeDouble(longitudes[i]);
+      for (int i = 0; i < size; i++) out.writeInt(years[i]);
+      for (int i = 0; i < size; i++) out.writeInt(months[i]);
+      for (int i = 0; i < size; i++) out.writeInt(days[i]);
+      for (int i = 0; i < size; i++) out.writeDouble(severities[i]);
+      out.write(escaped, 0, size);
+      for (int i = 0; i < size; i++) writeName(names[i]);
+      for (int[] column : strings) for (int i = 0; i < size; i++) out.writeInt(column[i]);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    Arrays.fill(names, 0, size, null);
+    size = 0;
+  }
+
+  private void writeName(String name) throws IOException {
+    if (name == null) {
+      out.writeInt(NULL);
+      return;
+    }
+    final byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+    out.writeInt(bytes.length);
+    out.write(bytes);
+  }
+}
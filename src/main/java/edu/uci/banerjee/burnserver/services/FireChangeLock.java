@@ -0,0 +1,39 @@
+package edu.uci.banerjee.burnserver.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+
+/**
+ * Orders rebuilds of in-memory views of {@code fires} against ingest. A chunk holds the shared side
+ * from before it commits until its events have been handled, and a rebuild holds the exclusive
+ * side while it reads the table. A snapshot therefore contains a chunk exactly when the chunk's
+ * {@link FiresSavedEvent} was handled before the rebuild, so views that apply inserts
+ * incrementally never count them twice.
+ */
+@Component
+public class FireChangeLock {
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  /** Runs a write and the publication of its events; writes run concurrently with each other. */
+  public <T> T write(Supplier<T> write) {
+    lock.readLock().lock();
+    try {
+      return write.get();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** Runs a read of the table that no write may commit or publish events during. */
+  public void snapshot(Runnable read) {
+    lock.writeLock().lock();
+    try {
+      read.run();
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+}
@@ -0,0 +1,33 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A chunk of ingested fires sorted by {@link FireWriter#classify}: fires whose natural key is new,
+ * fires that replace a stored row with the same key but different content, and the number of
+ * fires that are already stored unchanged and need no write. {@code previous} holds the stored
+ * statistics columns of each update, in the order of {@code updates}.
+ */
+@Getter
+public class FireChanges {
+  private final List<Fire> inserts = new ArrayList<>();
+  private final List<Fire> updates = new ArrayList<>();
+  private final List<Fire> previous = new ArrayList<>();
+  private int skipped;
+
+  void skip() {
+    skipped++;
+  }
+
+  /** The fires that have to be written, inserts first. */
+  public List<Fire> getChanged() {
+    final var changed = new ArrayList<Fire>(inserts.size() + updates.size());
+    changed.addAll(inserts);
+    changed.addAll(updates);
+    return changed;
+  }
+}
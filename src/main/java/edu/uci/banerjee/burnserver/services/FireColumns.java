@@ -0,0 +1,52 @@
+package edu.uci.banerjee.burnserver.services;
+
+import com.univocity.parsers.common.record.RecordMetaData;
+
+/**
+ * Positions of the upload columns, resolved once per file from its header so each row is read by
+ * index instead of by header name.
+ */
+final class FireColumns {
+  final int name;
+  final int acres;
+  final int latitude;
+  final int longitude;
+  final int burnType;
+  final int treatmentType;
+  final int countyUnitId;
+  final int county;
+  final int source;
+  final int escaped;
+  final int date;
+
+  private FireColumns(String[] headers) {
+    name = indexOf(headers, "name");
+    acres = indexOf(headers, "acres");
+    latitude = indexOf(headers, "latitude");
+    longitude = indexOf(headers, "longitude");
+    burnType = indexOf(headers, "burn_type");
+    treatmentType = indexOf(headers, "treatment_type");
+    countyUnitId = indexOf(headers, "county_unit_ID");
+    county = indexOf(headers, "county");
+    source = indexOf(headers, "source");
+    escaped = indexOf(headers, "escaped");
+    date = indexOf(headers, "date");
+  }
+
+  static FireColumns of(RecordMetaData metaData) {
+    return new FireColumns(metaData.headers());
+  }
+
+  /** The value at {@code index}, or null when the row is shorter than the header. */
+  static String get(String[] values, int index) {
+    return index < values.length ? values[index] : null;
+  }
+
+  // Header names are matched the way the parser matches them by name: trimmed, ignoring case.
+  private static int indexOf(String[] headers, String column) {
+    if (headers != null)
+      for (int i = 0; i < headers.length; i++)
+        if (headers[i] != null && headers[i].trim().equalsIgnoreCase(column)) return i;
+    throw new IllegalArgumentException("Upload has no '" + column + "' column.");
+  }
+}
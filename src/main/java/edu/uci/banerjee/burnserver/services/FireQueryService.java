@@ -0,0 +1,43 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FireFilter;
+import edu.uci.banerjee.burnserver.model.FirePoint;
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.function.Consumer;
+
+/** Visits matching fires one at a time without holding the result set in memory. */
+@Service
+public class FireQueryService {
+  private final FiresRepo repo;
+
+  @PersistenceContext private EntityManager entityManager;
+
+  public FireQueryService(FiresRepo repo) {
+    this.repo = repo;
+  }
+
+  @Transactional(readOnly = true)
+  public void forEach(FireFilter filter, Consumer<Fire> action) {
+    try (var fires = repo.streamByFilter(filter)) {
+      fires.forEach(
+          fire -> {
+            action.accept(fire);
+            entityManager.detach(fire);
+          });
+    }
+  }
+
+  @Transactional(readOnly = true)
+  public void forEachPoint(
+      double west, double south, double east, double north, Consumer<FirePoint> action) {
+    try (var points = repo.streamPointsInBox(west, south, east, north)) {
+      points.forEach(action);
+    }
+  }
+}
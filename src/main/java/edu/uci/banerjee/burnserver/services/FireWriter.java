@@ -0,0 +1,343 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.SpatialKey;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.io.StringReader;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static java.util.stream.Collectors.joining;
+
+/**
+ * Batched write path for ingested fires. On PostgreSQL rows are streamed with {@code COPY}; on
+ * every other database they are persisted through Hibernate's JDBC batching, flushing and clearing
+ * the persistence context every {@code batchSize} rows so it never grows past one batch.
+ *
+ * <p>Ingest is idempotent on each fire's natural key: {@link #classify} sorts a chunk into new,
+ * changed and unchanged fires, and {@link #write} inserts the new ones and updates the changed
+ * rows in place.
+ */
+@Service
+@DependsOn("entityManagerFactory")
+public class FireWriter {
+  private static final String COPY_COLUMNS =
+      "id, acres, burn_type, treatment_type, county_unit_id, county, latitude, longitude, name, "
+          + "source, year, month, day, owner, severity, escaped, ownership_pending, spatial_key, "
+          + "natural_key, row_hash";
+  // Everything but the natural key columns, in the order of updateParams.
+  private static final List<String> UPDATE_COLUMNS =
+      List.of(
+          "acres",
+          "burn_type",
+          "treatment_type",
+          "county_unit_id",
+          "county",
+          "owner",
+          "severity",
+          "escaped",
+          "ownership_pending",
+          "row_hash");
+
+  @PersistenceContext private EntityManager entityManager;
+
+  private final DataSource dataSource;
+  private final int batchSize;
+  private final boolean useCopy;
+  private final String conflictTarget;
+
+  public FireWriter(
+      DataSource dataSource,
+      FireArchiveService archiveService,
+      @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:500}") int batchSize,
+      @Value("${burn.ingest.postgres-copy:true}") boolean postgresCopy)
+      throws SQLException {
+    this.dataSource = dataSource;
+    this.batchSize = batchSize;
+    // Unique indexes of a partitioned table include the partition key.
+    this.conflictTarget = archiveService.isPartitioned() ? "(natural_key, year)" : "(natural_key)";
+
+    try (Connection conn = dataSource.getConnection()) {
+      this.useCopy =
+          postgresCopy && "PostgreSQL".equals(conn.getMetaData().getDatabaseProductName());
+    }
+  }
+
+  @Transactional
+  public void saveAll(List<Fire> fires) {
+    insert(fires);
+  }
+
+  /**
+   * Looks up the stored rows with the natural keys of {@code fires}. Fires with the key of a stored
+   * row take over its id and are updates when their {@code rowHash} differs, and skipped when it
+   * does not; a later fire with the same key as an earlier one in the list replaces it.
+   */
+  public FireChanges classify(List<Fire> fires) {
+    final Map<String, Fire> byKey = new LinkedHashMap<>();
+    final var changes = new FireChanges();
+    for (Fire fire : fires) {
+      if (byKey.put(fire.getNaturalKey(), fire) != null) changes.skip();
+    }
+
+    final var jdbc = new NamedParameterJdbcTemplate(dataSource);
+    final var keys = new ArrayList<>(byKey.keySet());
+    for (int from = 0; from < keys.size(); from += batchSize) {
+      jdbc.query(
+          "SELECT id, natural_key, row_hash, source, county, burn_type, treatment_type, year, "
+              + "month, owner, escaped, acres FROM fires WHERE natural_key IN (:keys)",
+          Map.of("keys", keys.subList(from, Math.min(from + batchSize, keys.size()))),
+          rs -> {
+            final var fire = byKey.remove(rs.getString("natural_key"));
+            if (fire == null) return;
+            if (Objects.equals(fire.getRowHash(), rs.getObject("row_hash", Long.class))) {
+              changes.skip();
+            } else {
+              fire.setId(rs.getInt("id"));
+              changes.getUpdates().add(fire);
+              changes.getPrevious().add(storedStatisticsColumns(rs));
+            }
+          });
+    }
+    changes.getInserts().addAll(byKey.values());
+    return changes;
+  }
+
+  /**
+   * Writes the inserts and updates of a classified chunk in one transaction. Outside PostgreSQL a
+   * fire inserted by a concurrent upload since {@link #classify} fails the whole chunk on the
+   * unique natural key index, see {@link #isDuplicateKey}. On PostgreSQL such fires are not
+   * inserted; they are classified again and moved to the updates or skips of {@code changes}
+   * before the transaction commits.
+   */
+  @Transactional
+  public void write(FireChanges changes) {
+    final var conflicts = insert(changes.getInserts());
+    if (!conflicts.isEmpty()) reclassify(changes, conflicts);
+    update(changes.getUpdates());
+  }
+
+  /** Inserts {@code fires} and returns those a concurrent upload already inserted. */
+  private List<Fire> insert(List<Fire> fires) {
+    if (fires.isEmpty()) return List.of();
+
+    if (useCopy) return copy(fires);
+    persist(fires);
+    return List.of();
+  }
+
+  private void reclassify(FireChanges changes, List<Fire> conflicts) {
+    final Set<Fire> conflicted = Collections.newSetFromMap(new IdentityHashMap<>());
+    conflicted.addAll(conflicts);
+    changes.getInserts().removeIf(conflicted::contains);
+    for (Fire fire : conflicts) fire.setId(0);
+
+    final var reclassified = classify(conflicts);
+    changes.getUpdates().addAll(reclassified.getUpdates());
+    changes.getPrevious().addAll(reclassified.getPrevious());
+    for (int i = 0; i < reclassified.getSkipped(); i++) changes.skip();
+  }
+
+  private static Fire storedStatisticsColumns(ResultSet rs) throws SQLException {
+    final var stored = new Fire();
+    stored.setId(rs.getInt("id"));
+    stored.setSource(rs.getString("source"));
+    stored.setCounty(rs.getString("county"));
+    stored.setBurnType(rs.getString("burn_type"));
+    stored.setTreatmentType(rs.getString("treatment_type"));
+    stored.setYear(rs.getInt("year"));
+    stored.setMonth(rs.getObject("month", Integer.class));
+    stored.setOwner(rs.getString("owner"));
+    stored.setEscaped(rs.getObject("escaped", Boolean.class));
+    stored.setAcres(rs.getDouble("acres"));
+    return stored;
+  }
+
+  private void update(List<Fire> fires) {
+    if (fires.isEmpty()) return;
+
+    final var sql =
+        "UPDATE fires SET "
+            + UPDATE_COLUMNS.stream().map(c -> c + " = ?").collect(joining(", "))
+            + " WHERE id = ?";
+    final var params = new ArrayList<Object[]>(fires.size());
+    for (Fire fire : fires) params.add(updateParams(fire));
+
+    final var jdbc = new JdbcTemplate(dataSource);
+    for (int from = 0; from < params.size(); from += batchSize) {
+      jdbc.batchUpdate(sql, params.subList(from, Math.min(from + batchSize, params.size())));
+    }
+  }
+
+  private static Object[] updateParams(Fire fire) {
+    return new Object[] {
+      fire.getAcres(),
+      fire.getBurnType(),
+      fire.getTreatmentType(),
+      fire.getCountyUnitId(),
+      fire.getCounty(),
+      fire.getOwner(),
+      fire.getSeverity(),
+      fire.getEscaped(),
+      fire.getOwnershipPending(),
+      fire.getRowHash(),
+      fire.getId()
+    };
+  }
+
+  /** Stores the owners resolved for already persisted fires and clears their pending flag. */
+  @Transactional
+  public void updateOwners(List<Fire> fires) {
+    final var updates = new ArrayList<Object[]>(fires.size());
+    for (Fire fire : fires) updates.add(new Object[] {fire.getOwner(), fire.getId()});
+
+    final var jdbc = new JdbcTemplate(dataSource);
+    for (int from = 0; from < updates.size(); from += batchSize) {
+      jdbc.batchUpdate(
+          "UPDATE fires SET owner = ?, ownership_pending = FALSE WHERE id = ?",
+          updates.subList(from, Math.min(from + batchSize, updates.size())));
+    }
+  }
+
+  private void persist(List<Fire> fires) {
+    for (int i = 0; i < fires.size(); i++) {
+      entityManager.persist(fires.get(i));
+      if ((i + 1) % batchSize == 0) {
+        entityManager.flush();
+        entityManager.clear();
+      }
+    }
+    entityManager.flush();
+    entityManager.clear();
+  }
+
+  private List<Fire> copy(List<Fire> fires) {
+    final var conn = DataSourceUtils.getConnection(dataSource);
+    try {
+      assignIds(conn, fires);
+
+      final var csv = new StringBuilder(fires.size() * 128);
+      for (Fire fire : fires) appendCsv(csv, fire);
+
+      // COPY cannot resolve conflicts, so rows are staged and then inserted with ON CONFLICT. Rows
+      // whose key a concurrent upload wrote since classify() are left out and not returned.
+      try (var stmt = conn.createStatement()) {
+        stmt.execute(
+            "CREATE TEMP TABLE IF NOT EXISTS fires_staging (LIKE fires) ON COMMIT DELETE ROWS");
+      }
+      conn.unwrap(PGConnection.class)
+          .getCopyAPI()
+          .copyIn(
+              "COPY fires_staging (" + COPY_COLUMNS + ") FROM STDIN WITH (FORMAT csv)",
+              new StringReader(csv.toString()));
+      final var inserted = new HashSet<String>(fires.size() * 2);
+      try (var stmt = conn.createStatement();
+          var rs =
+              stmt.executeQuery(
+                  "INSERT INTO fires ("
+                      + COPY_COLUMNS
+                      + ") SELECT "
+                      + COPY_COLUMNS
+                      + " FROM fires_staging ON CONFLICT "
+                      + conflictTarget
+                      + " DO NOTHING RETURNING natural_key")) {
+        while (rs.next()) inserted.add(rs.getString(1));
+      }
+
+      final var conflicts = new ArrayList<Fire>(fires.size() - inserted.size());
+      for (Fire fire : fires) {
+        if (!inserted.contains(fire.getNaturalKey())) conflicts.add(fire);
+      }
+      return conflicts;
+    } catch (SQLException | IOException e) {
+      throw new IllegalStateException("COPY of " + fires.size() + " fires failed.", e);
+    } finally {
+      DataSourceUtils.releaseConnection(conn, dataSource);
+    }
+  }
+
+  /** Reserves ids like the pooled-lo optimizer does: one sequence value per block of ids. */
+  private void assignIds(Connection conn, List<Fire> fires) throws SQLException {
+    final int blocks = (fires.size() + Fire.ID_ALLOCATION_SIZE - 1) / Fire.ID_ALLOCATION_SIZE;
+    try (var stmt =
+        conn.prepareStatement(
+            "SELECT nextval('" + Fire.ID_SEQUENCE + "') FROM generate_series(1, ?)")) {
+      stmt.setInt(1, blocks);
+      try (var rs = stmt.executeQuery()) {
+        int i = 0;
+        while (rs.next()) {
+          final long lo = rs.getLong(1);
+          for (int j = 0; j < Fire.ID_ALLOCATION_SIZE && i < fires.size(); j++, i++) {
+            fires.get(i).setId((int) (lo + j));
+          }
+        }
+      }
+    }
+  }
+
+  private static void appendCsv(StringBuilder csv, Fire fire) {
+    csv.append(fire.getId()).append(',');
+    csv.append(fire.getAcres()).append(',');
+    appendString(csv, fire.getBurnType());
+    appendString(csv, fire.getTreatmentType());
+    appendString(csv, fire.getCountyUnitId());
+    appendString(csv, fire.getCounty());
+    csv.append(fire.getLatitude()).append(',');
+    csv.append(fire.getLongitude()).append(',');
+    appendString(csv, fire.getName());
+    appendString(csv, fire.getSource());
+    csv.append(fire.getYear()).append(',');
+    appendNullable(csv, fire.getMonth());
+    appendNullable(csv, fire.getDay());
+    appendString(csv, fire.getOwner());
+    appendNullable(csv, fire.getSeverity());
+    appendNullable(csv, fire.getEscaped());
+    appendNullable(csv, fire.getOwnershipPending());
+    csv.append(SpatialKey.of(fire.getLatitude(), fire.getLongitude())).append(',');
+    appendString(csv, fire.getNaturalKey());
+    if (fire.getRowHash() != null) csv.append(fire.getRowHash());
+    csv.append('\n');
+  }
+
+  private static void appendNullable(StringBuilder csv, Object value) {
+    if (value != null) csv.append(value);
+    csv.append(',');
+  }
+
+  // In COPY csv format an unquoted empty field is NULL and a quoted one is the empty string.
+  private static void appendString(StringBuilder csv, String value) {
+    if (value != null) csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    csv.append(',');
+  }
+
+  /** Whether {@code e} was caused by a unique constraint violation. */
+  public static boolean isDuplicateKey(Throwable e) {
+    for (var cause = e; cause != null; cause = cause.getCause()) {
+      if (cause instanceof SQLException && "23505".equals(((SQLException) cause).getSQLState()))
+        return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,16 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import lombok.Getter;
+
+import java.util.List;
+
+/** Published by {@link DataIngestService} after a chunk of fires has been committed. */
+@Getter
+public class FiresSavedEvent {
+  private final List<Fire> fires;
+
+  public FiresSavedEvent(List<Fire> fires) {
+    this.fires = fires;
+  }
+}
@@ -0,0 +1,41 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import lombok.Getter;
+
+import java.util.List;
+
+/**
+ * Published after already persisted fires were changed, e.g. by {@link OwnershipBackfill}. {@code
+ * previous} holds what was stored for each of {@code fires} before the change, in the same order,
+ * so views aggregating the fires can move them out of where they were counted.
+ */
+@Getter
+public class FiresUpdatedEvent {
+  private final List<Fire> fires;
+  private final List<Fire> previous;
+
+  public FiresUpdatedEvent(List<Fire> fires, List<Fire> previous) {
+    this.fires = fires;
+    this.previous = previous;
+  }
+
+  /**
+   * The columns of {@code fire} that {@link StatisticsCube} groups and aggregates; the other
+   * columns are left unset.
+   */
+  static Fire statisticsColumns(Fire fire) {
+    final var copy = new Fire();
+    copy.setId(fire.getId());
+    copy.setSource(fire.getSource());
+    copy.setCounty(fire.getCounty());
+    copy.setBurnType(fire.getBurnType());
+    copy.setTreatmentType(fire.getTreatmentType());
+    copy.setYear(fire.getYear());
+    copy.setMonth(fire.getMonth());
+    copy.setOwner(fire.getOwner());
+    copy.setEscaped(fire.getEscaped());
+    copy.setAcres(fire.getAcres());
+    return copy;
+  }
+}
@@ -0,0 +1,131 @@
+package edu.uci.banerjee.burnserver.services;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/** Progress of one ingest run. Counters are updated from the ingest threads while it runs. */
+@Getter
+public class IngestJob {
+  public enum Status {
+    QUEUED,
+    RUNNING,
+    SUCCEEDED,
+    FAILED
+  }
+
+  private final String id = UUID.randomUUID().toString();
+  // The uploaded file the job reads, when it reads one.
+  private final String name;
+  private final Instant submittedAt = Instant.now();
+  private volatile Status status = Status.QUEUED;
+  private volatile Instant startedAt;
+  private volatile Instant finishedAt;
+  private volatile String error;
+
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong parsed = new AtomicLong();
+
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong enriched = new AtomicLong();
+
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong persisted = new AtomicLong();
+
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong inserted = new AtomicLong();
+
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong updated = new AtomicLong();
+
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong skipped = new AtomicLong();
+
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong failed = new AtomicLong();
+
+  public IngestJob() {
+    this(null);
+  }
+
+  public IngestJob(String name) {
+    this.name = name;
+  }
+
+  public long getRowsParsed() {
+    return parsed.get();
+  }
+
+  public long getRowsEnriched() {
+    return enriched.get();
+  }
+
+  public long getRowsPersisted() {
+    return persisted.get();
+  }
+
+  public long getRowsInserted() {
+    return inserted.get();
+  }
+
+  public long getRowsUpdated() {
+    return updated.get();
+  }
+
+  /** Rows already stored with the same content, which were not written again. */
+  public long getRowsSkipped() {
+    return skipped.get();
+  }
+
+  public long getRowsFailed() {
+    return failed.get();
+  }
+
+  /** Persisted rows per second since the job started running. */
+  public double getThroughput() {
+    if (startedAt == null) return 0;
+    final var end = finishedAt == null ? Instant.now() : finishedAt;
+    final long millis = Math.max(1, Duration.between(startedAt, end).toMillis());
+    return persisted.get() * 1000.0 / millis;
+  }
+
+  public void recordParsed() {
+    parsed.incrementAndGet();
+  }
+
+  public void recordEnriched() {
+    enriched.incrementAndGet();
+  }
+
+  /** Counts a written chunk; persisted rows are the inserted plus the updated ones. */
+  public void recordChanges(FireChanges changes) {
+    inserted.addAndGet(changes.getInserts().size());
+    updated.addAndGet(changes.getUpdates().size());
+    skipped.addAndGet(changes.getSkipped());
+    persisted.addAndGet(changes.getInserts().size() + changes.getUpdates().size());
+  }
+
+  public void recordFailed() {
+    failed.incrementAndGet();
+  }
+
+  void start() {
+    startedAt = Instant.now();
+    status = Status.RUNNING;
+  }
+
+  void succeed() {
+    finishedAt = Instant.now();
+    status = Status.SUCCEEDED;
+  }
+
+  void fail(Throwable cause) {
+    finishedAt = Instant.now();
+    error = cause.getMessage();
+    status = Status.FAILED;
+  }
+}
@@ -0,0 +1,101 @@
+package edu.uci.banerjee.burnserver.services;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs ingest work on a fixed pool of workers behind a bounded queue. Submissions beyond the queue
+ * capacity are rejected rather than piling up request bodies in memory.
+ */
+@Service
+@Slf4j
+public class IngestJobService {
+  private final ThreadPoolExecutor pool;
+  private final Map<String, IngestJob> jobs;
+
+  public IngestJobService(
+      @Value("${burn.ingest.workers:2}") int workers,
+      @Value("${burn.ingest.queue-capacity:4}") int queueCapacity,
+      @Value("${burn.ingest.retained-jobs:100}") int retainedJobs) {
+    final var threadCount = new AtomicInteger();
+    this.pool =
+        new ThreadPoolExecutor(
+            workers,
+            workers,
+            0L,
+            TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            task -> new Thread(task, "ingest-" + threadCount.incrementAndGet()),
+            new ThreadPoolExecutor.AbortPolicy());
+    this.jobs =
+        new LinkedHashMap<>() {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<String, IngestJob> eldest) {
+            return size() > retainedJobs && eldest.getValue().getFinishedAt() != null;
+          }
+        };
+  }
+
+  /**
+   * Queues {@code work} as a new job.
+   *
+   * @throws RejectedExecutionException when every worker is busy and the queue is full.
+   */
+  public IngestJob submit(Consumer<IngestJob> work) {
+    final var job = new IngestJob();
+    synchronized (jobs) {
+      jobs.put(job.getId(), job);
+    }
+
+    try {
+      pool.execute(
+          () -> {
+            job.start();
+            try {
+              work.accept(job);
+              job.succeed();
+              log.info("Ingest job {} saved {} fires.", job.getId(), job.getRowsPersisted());
+            } catch (RuntimeException e) {
+              job.fail(e);
+              log.error("Ingest job {} failed.", job.getId(), e);
+            }
+          });
+    } catch (RejectedExecutionException e) {
+      synchronized (jobs) {
+        jobs.remove(job.getId());
+      }
+      throw e;
+    }
+    return job;
+  }
+
+  /** Makes a job run elsewhere, e.g. by {@link FileIngestService}, visible to {@link #find}. */
+  public void track(IngestJob job) {
+    synchronized (jobs) {
+      jobs.put(job.getId(), job);
+    }
+  }
+
+  public Optional<IngestJob> find(String id) {
+    synchronized (jobs) {
+      return Optional.ofNullable(jobs.get(id));
+    }
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdown();
+  }
+}
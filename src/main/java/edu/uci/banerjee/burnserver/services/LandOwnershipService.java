@@ -1,111 +1,163 @@
 package edu.uci.banerjee.burnserver.services;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
-import com.fasterxml.jackson.annotation.JsonProperty;
-import com.fasterxml.jackson.databind.json.JsonMapper;
-import lombok.Data;
-import lombok.NonNull;
+import edu.uci.banerjee.burnserver.model.Fire;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestClientException;
-
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
-import java.io.Serializable;
-import java.net.HttpURLConnection;
-import java.net.URL;
+
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @Service
 @Slf4j
 public class LandOwnershipService {
-  // Utilizes data from
-  // https://hub.arcgis.com/datasets/CALFIRE-Forestry::california-land-ownership/about
-  // Read up on usage at
-  // https://hub.arcgis.com/datasets/CALFIRE-Forestry::california-land-ownership/api
-
-  private static final String API_PREFIX =
-      "https://egis.fire.ca.gov/arcgis/rest/services/FRAP/ownership/Feature"
-          + "Server/0/query?where=1%3D1&outFields=OWN_LEVEL,OWN_AGENCY,OWN_GROUP&geometry=";
-  private static final String API_SUFFIX =
-      "&geometryType=esriGeometryPoint&inSR=4326&spatialRel=esriSpatial"
-          + "RelIntersects&returnGeometry=false&outSR=4326&f=json";
   private static final String PRIVATE_LAND = "Private";
-  private final JsonMapper json;
+  private final OwnershipIndex index;
+  private final OwnershipCache cache;
+  private final EsriOwnershipClient client;
+  private final boolean remoteFallback;
+  private final int batchSize;
+
+  private final Timer indexLookups;
+  private final Timer remoteBatches;
+  private final Counter remoteErrors;
+
+  public LandOwnershipService(
+      OwnershipIndex index,
+      OwnershipCache cache,
+      EsriOwnershipClient client,
+      @Value("${burn.ownership.remote-fallback:true}") boolean remoteFallback,
+      @Value("${burn.ownership.remote.batch-size:100}") int batchSize,
+      MeterRegistry registry) {
+    this.index = index;
+    this.cache = cache;
+    this.client = client;
+    this.remoteFallback = remoteFallback;
+    this.batchSize = batchSize;
+
+    this.indexLookups = lookupTimer(registry, "index");
+    this.remoteBatches =
+        Timer.builder("burn.ownership.batch")
+            .description("Time to resolve the owners of one batch of coordinates remotely")
+            .publishPercentileHistogram()
+            .register(registry);
+    this.remoteErrors =
+        Counter.builder("burn.ownership.lookup.errors")
+            .description("Remote ownership batches that failed after every retry")
+            .register(registry);
+
+    if (!canResolve())
+      log.warn("No ownership index loaded and remote fallback disabled, owners stay pending.");
+  }
 
-  public LandOwnershipService() {
-    this.json = new JsonMapper();
+  /** Whether owners can be resolved at all, from the index or the remote service. */
+  public boolean canResolve() {
+    return index.isLoaded() || remoteFallback;
   }
 
-  public String getOwnershipFromCoordinate(@NonNull final Double lat, @NonNull final Double lon) {
-    try {
-      log.debug("Called Ownership for Coordinate {} {}", lat, lon);
-      HttpHeaders headers = new HttpHeaders();
-      headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-      final var queryUrl = buildQueryUrl(lat, lon);
-      final var response = get(queryUrl);
-
-      log.debug("Got Ownership for Coordinate {} {}", lat, lon);
-      if (response.getFeatures() == null
-          || (response.getFeatures() != null && response.getFeatures().isEmpty()))
-        return PRIVATE_LAND;
-      else {
-        if (response.getFeatures().size() > 1) log.warn("Received more than one owner of land.");
-        return response.getFeatures().get(0).getAttributes().getOwnLevel();
+  /**
+   * Sets the owner of every fire that can be resolved without waiting: from the index, or from the
+   * cache when owners are looked up remotely. The others are left without one and marked ownership
+   * pending, so an empty owner is never stored; {@link #lookUpOwners} resolves them later.
+   */
+  public void assignOwners(List<Fire> fires) {
+    if (index.isLoaded()) {
+      for (Fire fire : fires) {
+        resolved(
+            fire,
+            indexLookups.record(
+                () ->
+                    index.findOwner(fire.getLatitude(), fire.getLongitude()).orElse(PRIVATE_LAND)));
       }
-    } catch (RestClientException | IOException ex) {
-      log.error("ESRI Get called ended in exception ", ex);
-      return "";
+      return;
     }
-  }
 
-  private String buildQueryUrl(@NonNull final Double lat, @NonNull final Double lon) {
-    final var latString = "%2C" + lat;
-    final var lonString = "%2C" + lon;
-    return String.format(
-        "%s%s%s%s%s%s", API_PREFIX, lon, latString, lonString, latString, API_SUFFIX);
+    for (Fire fire : fires) {
+      final var owner =
+          remoteFallback ? cache.getIfPresent(fire.getLatitude(), fire.getLongitude()) : null;
+      if (owner != null) resolved(fire, owner);
+      else pending(fire);
+    }
   }
 
-  private EsriApiResponse get(@NonNull final String queryUrl) throws IOException {
-    StringBuilder result = new StringBuilder();
-    URL url = new URL(queryUrl);
-    HttpURLConnection conn = (HttpURLConnection) url.openConnection();
-    conn.setRequestMethod("GET");
-
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(conn.getInputStream()))) {
-      for (String line; (line = reader.readLine()) != null; ) {
-        result.append(line);
-      }
+  /**
+   * Resolves the owners of {@code fires}, looking coordinates missing from the cache up remotely
+   * {@code batchSize} at a time; lookups of a cell already in flight are shared. Completes once
+   * every batch has finished, leaving the fires whose owner could not be resolved pending.
+   */
+  public CompletableFuture<Void> lookUpOwners(List<Fire> fires) {
+    if (index.isLoaded() || !remoteFallback) {
+      assignOwners(fires);
+      return CompletableFuture.completedFuture(null);
     }
 
-    return json.readValue(result.toString(), EsriApiResponse.class);
+    final var batches = new ArrayList<CompletableFuture<Void>>();
+    for (int from = 0; from < fires.size(); from += batchSize) {
+      batches.add(lookUpBatch(fires.subList(from, Math.min(from + batchSize, fires.size()))));
+    }
+    return CompletableFuture.allOf(batches.toArray(new CompletableFuture[0]));
   }
 
-  @Data
-  @JsonIgnoreProperties(ignoreUnknown = true)
-  private static class EsriApiResponse implements Serializable {
-    private List<EsriApiFeature> features;
+  private CompletableFuture<Void> lookUpBatch(List<Fire> batch) {
+    final double[] lats = new double[batch.size()];
+    final double[] lons = new double[batch.size()];
+    for (int i = 0; i < batch.size(); i++) {
+      lats[i] = batch.get(i).getLatitude();
+      lons[i] = batch.get(i).getLongitude();
+    }
+
+    return cache
+        .getAll(lats, lons, this::findRemoteOwners)
+        .handle(
+            (owners, error) -> {
+              if (error != null) {
+                log.warn(
+                    "Ownership lookup for {} fires failed, leaving them pending: {}",
+                    batch.size(),
+                    error.getMessage());
+                batch.forEach(LandOwnershipService::pending);
+                return null;
+              }
+
+              for (int i = 0; i < batch.size(); i++) {
+                final var owner = owners.get(i);
+                if (owner != null && !owner.isEmpty()) resolved(batch.get(i), owner);
+                else pending(batch.get(i));
+              }
+              return null;
+            });
   }
 
-  @Data
-  @JsonIgnoreProperties(ignoreUnknown = true)
-  private static class EsriApiFeature implements Serializable {
-    private EsriApiAttributes attributes;
+  private CompletableFuture<List<String>> findRemoteOwners(double[] lats, double[] lons) {
+    final var sample = Timer.start();
+    return client
+        .findOwners(lats, lons)
+        .whenComplete(
+            (owners, error) -> {
+              sample.stop(remoteBatches);
+              if (error != null) remoteErrors.increment();
+            });
   }
 
-  @Data
-  @JsonIgnoreProperties(ignoreUnknown = true)
-  private static class EsriApiAttributes implements Serializable {
-    @JsonProperty("OWN_LEVEL")
-    private String ownLevel;
+  private static void resolved(Fire fire, String owner) {
+    fire.setOwner(owner);
+    fire.setOwnershipPending(false);
+  }
 
-    @JsonProperty("OWN_AGENCY")
-    private String ownAgency;
+  private static void pending(Fire fire) {
+    fire.setOwner(null);
+    fire.setOwnershipPending(true);
+  }
 
-    @JsonProperty("OWN_GROUP")
-    private String ownGroup;
+  private static Timer lookupTimer(MeterRegistry registry, String source) {
+    return Timer.builder("burn.ownership.lookup")
+        .description("Time to resolve the owner of one coordinate")
+        .tag("source", source)
+        .publishPercentileHistogram()
+        .register(registry);
   }
 }
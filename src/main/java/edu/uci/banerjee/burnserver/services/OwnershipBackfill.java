@@ -0,0 +1,138 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Resolves the owners of fires saved as ownership pending. Fires just ingested are looked up in
+ * the background as soon as their chunk is written. Fires whose lookup failed, e.g. while the
+ * ownership service was unavailable, are retried by a scheduled run that walks them in id order a
+ * page at a time, so fires that fail again are skipped until the next run; each run then persists
+ * the {@link OwnershipCache}. It is created at startup even with lazy initialization, since
+ * scheduled methods are only picked up on created beans.
+ */
+@Service
+@Lazy(false)
+@Slf4j
+public class OwnershipBackfill {
+  private final FiresRepo repo;
+  private final LandOwnershipService landOwnershipService;
+  private final OwnershipCache ownershipCache;
+  private final FireWriter writer;
+  private final FireArchiveService archiveService;
+  private final FireChangeLock changeLock;
+  private final ApplicationEventPublisher events;
+  private final ExecutorService writes =
+      Executors.newSingleThreadExecutor(task -> new Thread(task, "ownership-backfill"));
+
+  public OwnershipBackfill(
+      FiresRepo repo,
+      LandOwnershipService landOwnershipService,
+      OwnershipCache ownershipCache,
+      FireWriter writer,
+      FireArchiveService archiveService,
+      FireChangeLock changeLock,
+      ApplicationEventPublisher events) {
+    this.repo = repo;
+    this.landOwnershipService = landOwnershipService;
+    this.ownershipCache = ownershipCache;
+    this.writer = writer;
+    this.archiveService = archiveService;
+    this.changeLock = changeLock;
+    this.events = events;
+  }
+
+  /**
+   * Looks up the owners of fires that were just saved as ownership pending without waiting for
+   * them, then stores the owners it resolved like a scheduled run does.
+   */
+  public void resolve(List<Fire> fires) {
+    if (fires.isEmpty() || !landOwnershipService.canResolve()) return;
+
+    final var previous = statisticsColumns(fires);
+    landOwnershipService
+        .lookUpOwners(fires)
+        .thenRunAsync(() -> store(fires, previous), writes)
+        .exceptionally(
+            error -> {
+              log.warn("Could not store the owners of {} fires.", fires.size(), error);
+              return null;
+            });
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    writes.shutdown();
+  }
+
+  @Scheduled(
+      fixedDelayString = "${burn.ownership.backfill.interval:PT5M}",
+      initialDelayString = "${burn.ownership.backfill.interval:PT5M}")
+  public void run() {
+    if (!landOwnershipService.canResolve()) return;
+
+    // Archived fires are read-only, so they keep a pending owner.
+    final var archivedBefore = archiveService.getArchivedBefore();
+    final int fromYear = archivedBefore == null ? Integer.MIN_VALUE : archivedBefore;
+    int afterId = 0;
+    int resolved = 0;
+    List<Fire> page;
+    while (!(page = pendingPage(fromYear, afterId)).isEmpty()) {
+      afterId = page.get(page.size() - 1).getId();
+      final var previous = statisticsColumns(page);
+      landOwnershipService.lookUpOwners(page).join();
+      resolved += store(page, previous);
+    }
+    if (resolved > 0) log.info("Backfilled the owners of {} fires.", resolved);
+    // Owners looked up since the last run, including those of fires ingested meanwhile, survive a
+    // crash that skips the shutdown write.
+    ownershipCache.persist();
+  }
+
+  /**
+   * Stores the owners of the fires that are no longer pending; returns how many there were. {@code
+   * previous} holds the statistics columns of each fire from before its owner was looked up.
+   */
+  private int store(List<Fire> fires, List<Fire> previous) {
+    final var updated = new ArrayList<Fire>(fires.size());
+    final var updatedPrevious = new ArrayList<Fire>(fires.size());
+    for (int i = 0; i < fires.size(); i++) {
+      if (Boolean.TRUE.equals(fires.get(i).getOwnershipPending())) continue;
+      updated.add(fires.get(i));
+      updatedPrevious.add(previous.get(i));
+    }
+    if (updated.isEmpty()) return 0;
+
+    // Held like an ingested chunk, so a cube rebuild cannot read the new owners and then see them
+    // moved again by the event.
+    changeLock.write(
+        () -> {
+          writer.updateOwners(updated);
+          events.publishEvent(new FiresUpdatedEvent(updated, updatedPrevious));
+          return null;
+        });
+    return updated.size();
+  }
+
+  private static List<Fire> statisticsColumns(List<Fire> fires) {
+    final var columns = new ArrayList<Fire>(fires.size());
+    for (Fire fire : fires) columns.add(FiresUpdatedEvent.statisticsColumns(fire));
+    return columns;
+  }
+
+  private List<Fire> pendingPage(int fromYear, int afterId) {
+    return repo.findTop500ByOwnershipPendingTrueAndYearGreaterThanEqualAndIdGreaterThanOrderByIdAsc(
+        fromYear, afterId);
+  }
+}
@@ -0,0 +1,250 @@
+package edu.uci.banerjee.burnserver.services;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+import static java.util.stream.Collectors.toUnmodifiableList;
+
+/**
+ * Bounded LRU cache of coordinate to land owner, keyed by lat/lon rounded to a fixed number of
+ * decimals. Concurrent misses on the same key share a single lookup. The entries are written to
+ * disk by each scheduled {@link OwnershipBackfill} run that finds them changed and on shutdown, and
+ * read back on startup. The file starts with the number of decimals its keys were rounded to, so a
+ * file written with a different setting is discarded instead of answering for the wrong cells.
+ */
+@Component
+@Slf4j
+public class OwnershipCache {
+  private static final Tags TAGS = Tags.of("cache", "ownership");
+  private static final String DECIMALS_HEADER = "decimals\t";
+
+  private final int maxEntries;
+  private final int decimals;
+  private final double scale;
+  private final Path file;
+  private final Map<Long, String> entries;
+  private final Map<Long, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+  // Owners added since startup and how many of them the file holds; guarded by entries.
+  private long added;
+  private long persisted;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter coalesced;
+  private final Counter evictions;
+
+  public OwnershipCache(
+      @Value("${burn.ownership.cache.max-entries:100000}") int maxEntries,
+      @Value("${burn.ownership.cache.decimals:4}") int decimals,
+      @Value("${burn.ownership.cache.file:}") String file,
+      MeterRegistry registry) {
+    if (decimals < 0 || decimals > 6)
+      throw new IllegalArgumentException("Cache decimals must be between 0 and 6.");
+
+    this.maxEntries = maxEntries;
+    this.decimals = decimals;
+    this.scale = Math.pow(10, decimals);
+    this.file = file == null || file.isBlank() ? null : Path.of(file);
+    this.entries =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, String> eldest) {
+            if (size() <= OwnershipCache.this.maxEntries) return false;
+            evictions.increment();
+            return true;
+          }
+        };
+
+    this.hits = registry.counter("cache.gets", TAGS.and("result", "hit"));
+    this.misses = registry.counter("cache.gets", TAGS.and("result", "miss"));
+    this.coalesced = registry.counter("cache.gets", TAGS.and("result", "coalesced"));
+    this.evictions = registry.counter("cache.evictions", TAGS);
+    registry.gauge("cache.size", TAGS, this, OwnershipCache::size);
+
+    load();
+  }
+
+  /**
+   * Owners of the coordinates in order. Cached cells are answered directly and cells another
+   * caller is already looking up share that lookup; the remaining cells are passed to a single
+   * call of {@code lookup}. Empty results are treated as failures and not cached.
+   */
+  public CompletableFuture<List<String>> getAll(
+      double[] lats,
+      double[] lons,
+      BiFunction<double[], double[], CompletableFuture<List<String>>> lookup) {
+    final var owners = new ArrayList<CompletableFuture<String>>(lats.length);
+    final var missing = new ArrayList<CompletableFuture<String>>();
+    final long[] missingKeys = new long[lats.length];
+    final double[] missingLats = new double[lats.length];
+    final double[] missingLons = new double[lats.length];
+
+    for (int i = 0; i < lats.length; i++) {
+      final long key = key(lats[i], lons[i]);
+      final String owner;
+      synchronized (entries) {
+        owner = entries.get(key);
+      }
+      if (owner != null) {
+        hits.increment();
+        owners.add(CompletableFuture.completedFuture(owner));
+        continue;
+      }
+
+      final var future = new CompletableFuture<String>();
+      final var pending = inFlight.putIfAbsent(key, future);
+      if (pending != null) {
+        coalesced.increment();
+        owners.add(pending);
+        continue;
+      }
+      misses.increment();
+      owners.add(future);
+      missingKeys[missing.size()] = key;
+      missingLats[missing.size()] = lats[i];
+      missingLons[missing.size()] = lons[i];
+      missing.add(future);
+    }
+
+    if (!missing.isEmpty()) {
+      final int count = missing.size();
+      CompletableFuture<List<String>> found;
+      try {
+        found =
+            lookup.apply(Arrays.copyOf(missingLats, count), Arrays.copyOf(missingLons, count));
+      } catch (RuntimeException e) {
+        found = CompletableFuture.failedFuture(e);
+      }
+      found.whenComplete(
+          (resolved, error) -> {
+            for (int i = 0; i < count; i++) {
+              final var future = missing.get(i);
+              if (error != null) {
+                future.completeExceptionally(error);
+              } else {
+                final var owner = resolved.get(i);
+                if (owner != null && !owner.isEmpty()) put(missingKeys[i], owner);
+                future.complete(owner);
+              }
+              inFlight.remove(missingKeys[i], future);
+            }
+          });
+    }
+
+    return CompletableFuture.allOf(owners.toArray(new CompletableFuture[0]))
+        .thenApply(
+            done -> owners.stream().map(CompletableFuture::join).collect(toUnmodifiableList()));
+  }
+
+  /** The cached owner for the coordinate's cell, or null without looking it up. */
+  public String getIfPresent(double lat, double lon) {
+    final String owner;
+    synchronized (entries) {
+      owner = entries.get(key(lat, lon));
+    }
+    // A cell that is not cached is counted as a miss when it is looked up.
+    if (owner != null) hits.increment();
+    return owner;
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  /** Writes the entries to the cache file, unless no owner was added since the last write. */
+  @PreDestroy
+  public synchronized void persist() {
+    if (file == null) return;
+
+    // Copied first, so lookups are not held up while the file is written.
+    final long[] keys;
+    final String[] owners;
+    final long addedBefore;
+    synchronized (entries) {
+      if (added == persisted) return;
+      addedBefore = added;
+      keys = new long[entries.size()];
+      owners = new String[entries.size()];
+      int i = 0;
+      for (Map.Entry<Long, String> entry : entries.entrySet()) {
+        keys[i] = entry.getKey();
+        owners[i++] = entry.getValue();
+      }
+    }
+
+    try {
+      Files.createDirectories(file.toAbsolutePath().getParent());
+      final var tmp = file.resolveSibling(file.getFileName() + ".tmp");
+      try (BufferedWriter writer = Files.newBufferedWriter(tmp)) {
+        writer.write(DECIMALS_HEADER + decimals);
+        writer.newLine();
+        for (int i = 0; i < keys.length; i++) {
+          writer.write(keys[i] + "\t" + owners[i]);
+          writer.newLine();
+        }
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+      synchronized (entries) {
+        persisted = addedBefore;
+      }
+      log.info("Persisted {} cached owners to {}.", keys.length, file);
+    } catch (IOException e) {
+      log.warn("Could not persist ownership cache to {}.", file, e);
+    }
+  }
+
+  private void put(long key, String owner) {
+    synchronized (entries) {
+      entries.put(key, owner);
+      added++;
+    }
+  }
+
+  private void load() {
+    if (file == null || !Files.isReadable(file)) return;
+
+    try (BufferedReader reader = Files.newBufferedReader(file)) {
+      final var header = reader.readLine();
+      if (!(DECIMALS_HEADER + decimals).equals(header)) {
+        log.warn(
+            "Discarding ownership cache {}, it was not written with {} decimals.", file, decimals);
+        return;
+      }
+      for (String line; (line = reader.readLine()) != null; ) {
+        final int tab = line.indexOf('\t');
+        if (tab > 0) entries.put(Long.parseLong(line.substring(0, tab)), line.substring(tab + 1));
+      }
+      log.info("Loaded {} cached owners from {}.", entries.size(), file);
+    } catch (IOException | NumberFormatException e) {
+      log.warn("Could not load ownership cache from {}.", file, e);
+    }
+  }
+
+  private long key(double lat, double lon) {
+    final long latCell = Math.round(lat * scale);
+    final long lonCell = Math.round(lon * scale);
+    return (latCell << 32) | (lonCell & 0xffffffffL);
+  }
+}
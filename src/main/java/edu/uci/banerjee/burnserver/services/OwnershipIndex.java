@@ -0,0 +1,130 @@
+package edu.uci.banerjee.burnserver.services;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * In-memory point-in-polygon index over a GeoJSON export of the CAL FIRE ownership layer.
+ *
+ * <p>Export the layer in WGS84 (outSR=4326) as a FeatureCollection of Polygon/MultiPolygon
+ * features carrying an OWN_LEVEL property. Shapefiles can be converted with {@code ogr2ogr -f
+ * GeoJSON -t_srs EPSG:4326}. Polygons are bucketed into a fixed degree grid by bounding box, so a
+ * lookup only ray-casts the handful of polygons whose boxes share the point's cell.
+ */
+@Component
+@Slf4j
+public class OwnershipIndex {
+  private static final double CELL_DEGREES = 0.1;
+  private static final String OWNER_PROPERTY = "OWN_LEVEL";
+
+  private final Map<Long, List<OwnershipPolygon>> grid = new HashMap<>();
+  private int polygonCount;
+
+  public OwnershipIndex(@Value("${burn.ownership.index-file:}") String indexFile)
+      throws IOException {
+    if (indexFile == null || indexFile.isBlank()) {
+      log.info("No ownership index file configured.");
+      return;
+    }
+
+    final var path = Path.of(indexFile);
+    if (!Files.isReadable(path)) {
+      log.warn("Ownership index file {} is not readable.", path);
+      return;
+    }
+
+    final long start = System.currentTimeMillis();
+    try (InputStream in = Files.newInputStream(path)) {
+      load(in);
+    }
+    log.info(
+        "Loaded {} ownership polygons into {} grid cells in {} ms.",
+        polygonCount,
+        grid.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  public boolean isLoaded() {
+    return polygonCount > 0;
+  }
+
+  public int size() {
+    return polygonCount;
+  }
+
+  public Optional<String> findOwner(double lat, double lon) {
+    final var candidates = grid.get(cellKey(cell(lon), cell(lat)));
+    if (candidates == null) return Optional.empty();
+
+    for (OwnershipPolygon polygon : candidates) {
+      if (polygon.contains(lon, lat)) return Optional.ofNullable(polygon.getOwner());
+    }
+    return Optional.empty();
+  }
+
+  private void load(InputStream in) throws IOException {
+    final var json = new JsonMapper();
+    try (JsonParser parser = json.getFactory().createParser(in)) {
+      // Stream features one at a time so the whole collection never sits in memory as a tree.
+      while (parser.nextToken() != null) {
+        if (parser.currentToken() == JsonToken.FIELD_NAME
+            && "features".equals(parser.getCurrentName())
+            && parser.nextToken() == JsonToken.START_ARRAY) {
+          while (parser.nextToken() == JsonToken.START_OBJECT) {
+            addFeature(json.readTree(parser));
+          }
+        }
+      }
+    }
+  }
+
+  private void addFeature(JsonNode feature) {
+    final var geometry = feature.path("geometry");
+    final var owner = feature.path("properties").path(OWNER_PROPERTY).asText(null);
+
+    switch (geometry.path("type").asText()) {
+      case "Polygon":
+        add(new OwnershipPolygon(owner, geometry.path("coordinates")));
+        break;
+      case "MultiPolygon":
+        for (JsonNode polygon : geometry.path("coordinates")) {
+          add(new OwnershipPolygon(owner, polygon));
+        }
+        break;
+      default:
+        log.debug("Skipping unsupported geometry {}.", geometry.path("type"));
+    }
+  }
+
+  private void add(OwnershipPolygon polygon) {
+    for (int x = cell(polygon.getMinX()); x <= cell(polygon.getMaxX()); x++) {
+      for (int y = cell(polygon.getMinY()); y <= cell(polygon.getMaxY()); y++) {
+        grid.computeIfAbsent(cellKey(x, y), k -> new ArrayList<>(2)).add(polygon);
+      }
+    }
+    polygonCount++;
+  }
+
+  private static int cell(double degrees) {
+    return (int) Math.floor(degrees / CELL_DEGREES);
+  }
+
+  private static long cellKey(int x, int y) {
+    return ((long) x << 32) | (y & 0xffffffffL);
+  }
+}
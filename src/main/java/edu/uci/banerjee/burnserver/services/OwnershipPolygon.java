@@ -0,0 +1,58 @@
+package edu.uci.banerjee.burnserver.services;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.Getter;
+
+/**
+ * One ownership polygon as arrays of ring coordinates, built from either a GeoJSON polygon's
+ * {@code coordinates} or an Esri JSON polygon's {@code rings}; both are arrays of [x, y] rings.
+ */
+final class OwnershipPolygon {
+  @Getter private final String owner;
+  private final double[][] xs;
+  private final double[][] ys;
+  @Getter private double minX = Double.POSITIVE_INFINITY;
+  @Getter private double minY = Double.POSITIVE_INFINITY;
+  @Getter private double maxX = Double.NEGATIVE_INFINITY;
+  @Getter private double maxY = Double.NEGATIVE_INFINITY;
+
+  OwnershipPolygon(String owner, JsonNode rings) {
+    this.owner = owner;
+    this.xs = new double[rings.size()][];
+    this.ys = new double[rings.size()][];
+
+    for (int r = 0; r < rings.size(); r++) {
+      final var ring = rings.get(r);
+      xs[r] = new double[ring.size()];
+      ys[r] = new double[ring.size()];
+      for (int i = 0; i < ring.size(); i++) {
+        final double x = ring.get(i).get(0).asDouble();
+        final double y = ring.get(i).get(1).asDouble();
+        xs[r][i] = x;
+        ys[r][i] = y;
+        minX = Math.min(minX, x);
+        minY = Math.min(minY, y);
+        maxX = Math.max(maxX, x);
+        maxY = Math.max(maxY, y);
+      }
+    }
+  }
+
+  /** Even-odd ray cast across every ring, which also excludes points that fall in holes. */
+  boolean contains(double x, double y) {
+    if (x < minX || x > maxX || y < minY || y > maxY) return false;
+
+    boolean inside = false;
+    for (int r = 0; r < xs.length; r++) {
+      final double[] rx = xs[r];
+      final double[] ry = ys[r];
+      for (int i = 0, j = rx.length - 1; i < rx.length; j = i++) {
+        if ((ry[i] > y) != (ry[j] > y)
+            && x < (rx[j] - rx[i]) * (y - ry[i]) / (ry[j] - ry[i]) + rx[i]) {
+          inside = !inside;
+        }
+      }
+    }
+    return inside;
+  }
+}
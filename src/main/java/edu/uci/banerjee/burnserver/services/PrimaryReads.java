@@ -0,0 +1,27 @@
+package edu.uci.banerjee.burnserver.services;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.function.Supplier;
+
+/**
+ * Runs reads whose results are kept as the current state of {@code fires}: the statistics cube and
+ * columnar store rebuilds and the cached tiles and responses recomputed after a change. They run in
+ * a read-write transaction that the read-only repository methods join, so they use the write pool
+ * even when read-only transactions go to a replica that lags the writes, whose answer would miss
+ * the change until the next rebuild or invalidation.
+ */
+@Service
+public class PrimaryReads {
+
+  @Transactional
+  public <T> T read(Supplier<T> read) {
+    return read.get();
+  }
+
+  @Transactional
+  public void run(Runnable read) {
+    read.run();
+  }
+}
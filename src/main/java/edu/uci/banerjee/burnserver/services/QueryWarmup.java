@@ -0,0 +1,71 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FireFilter;
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Runs the /query and /statistics repository queries a few times at startup, so the first
+ * requests do not pay for Hibernate query compilation, connection pool fill-up and JIT. Spring
+ * Boot reports the application ready, and the readiness probe flips, only after runners finish.
+ */
+@Service
+@Slf4j
+public class QueryWarmup implements ApplicationRunner {
+  private final FiresRepo repo;
+  private final ConfigurableApplicationContext context;
+  private final int iterations;
+  private final boolean exit;
+
+  public QueryWarmup(
+      FiresRepo repo,
+      ConfigurableApplicationContext context,
+      @Value("${burn.warmup.iterations:0}") int iterations,
+      @Value("${burn.warmup.exit:false}") boolean exit) {
+    this.repo = repo;
+    this.context = context;
+    this.iterations = iterations;
+    this.exit = exit;
+  }
+
+  @Override
+  public void run(ApplicationArguments args) {
+    if (iterations > 0) warmUp();
+    // The build's AppCDS training run only needs the classes loaded by startup and warm-up.
+    if (exit) System.exit(SpringApplication.exit(context));
+  }
+
+  private void warmUp() {
+    final long start = System.currentTimeMillis();
+    final List<Fire> sample = repo.findPageByFilter(new FireFilter(), null, 1);
+    if (sample.isEmpty()) {
+      log.info("Skipping query warm-up, there are no fires.");
+      return;
+    }
+
+    final var fire = sample.get(0);
+    final var county = new FireFilter();
+    county.setCounty(fire.getCounty());
+    for (int i = 0; i < iterations; i++) {
+      repo.findByAllParams(
+          null, null, null, null, null, null, null, fire.getYear(), fire.getYear(), null, null,
+          null, null);
+      repo.findByAllParams(
+          fire.getSource(), null, fire.getCounty(), null, null, fire.getBurnType(), null, null,
+          null, null, null, null, null);
+      repo.filterStatistics(new FireFilter());
+      repo.filterStatistics(county);
+    }
+    log.info(
+        "Warmed up queries {} times in {} ms.", iterations, System.currentTimeMillis() - start);
+  }
+}
@@ -0,0 +1,190 @@
+package edu.uci.banerjee.burnserver.services;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.event.AfterCreateEvent;
+import org.springframework.data.rest.core.event.AfterDeleteEvent;
+import org.springframework.data.rest.core.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Serialized JSON answers of the read endpoints, keyed by endpoint and normalized parameters. Every
+ * change to {@code fires} bumps the {@link DatasetVersion} and drops all entries. The ETag of an
+ * answer names the version it was computed at, so a conditional request can be answered from
+ * {@link #etag()} before anything is computed, including for answers too large to cache.
+ *
+ * <p>Requests missing the same key wait for one computation instead of running one each. Entries
+ * are evicted least recently used first once their total size passes {@code
+ * burn.query.cache.max-bytes}.
+ */
+@Service
+public class ResponseCache {
+  private static final Tags TAGS = Tags.of("cache", "responses");
+
+  private final ObjectMapper objectMapper;
+  private final DatasetVersion version;
+  private final long maxBytes;
+  private final LinkedHashMap<String, Response> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final Map<String, CompletableFuture<Response>> computing = new ConcurrentHashMap<>();
+  private long bytes;
+
+  private final Counter hits;
+  private final Counter misses;
+  private final Counter evictions;
+
+  public ResponseCache(
+      ObjectMapper objectMapper,
+      DatasetVersion version,
+      @Value("${burn.query.cache.max-bytes:67108864}") long maxBytes,
+      MeterRegistry registry) {
+    this.objectMapper = objectMapper;
+    this.version = version;
+    this.maxBytes = maxBytes;
+
+    this.hits = registry.counter("cache.gets", TAGS.and("result", "hit"));
+    this.misses = registry.counter("cache.gets", TAGS.and("result", "miss"));
+    this.evictions = registry.counter("cache.evictions", TAGS);
+    registry.gauge("cache.size", TAGS, this, ResponseCache::size);
+  }
+
+  /** The ETag every answer computed at the current dataset version carries. */
+  public String etag() {
+    return etag(version.get());
+  }
+
+  /** Cached JSON for {@code key}, otherwise serializes what {@code compute} returns. */
+  public Response get(String key, Supplier<Object> compute) {
+    final var cached = cached(key);
+    if (cached != null) {
+      hits.increment();
+      return cached;
+    }
+    misses.increment();
+
+    final var computation = new CompletableFuture<Response>();
+    final var running = computing.putIfAbsent(key, computation);
+    if (running != null) return await(running);
+    try {
+      final var response = compute(key, compute);
+      computation.complete(response);
+      return response;
+    } catch (RuntimeException | Error e) {
+      computation.completeExceptionally(e);
+      throw e;
+    } finally {
+      computing.remove(key, computation);
+    }
+  }
+
+  private Response cached(String key) {
+    synchronized (entries) {
+      return entries.get(key);
+    }
+  }
+
+  private Response compute(String key, Supplier<Object> compute) {
+    // A computation that finished since the miss has already cached the answer.
+    final var cached = cached(key);
+    if (cached != null) return cached;
+
+    // A write while the answer is being computed bumps the version; the answer is still returned
+    // with the ETag of the version it started at, but not cached, since it may predate the write.
+    final long startVersion = version.get();
+    final byte[] json;
+    try {
+      json = objectMapper.writeValueAsBytes(compute.get());
+    } catch (JsonProcessingException e) {
+      throw new UncheckedIOException(e);
+    }
+    final var response = new Response(json, etag(startVersion));
+
+    if (json.length <= maxBytes) {
+      synchronized (entries) {
+        if (version.get() == startVersion) {
+          final var previous = entries.put(key, response);
+          bytes += json.length - (previous == null ? 0 : previous.getBody().length);
+          evict();
+        }
+      }
+    }
+    return response;
+  }
+
+  private static Response await(CompletableFuture<Response> computation) {
+    try {
+      return computation.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+      if (e.getCause() instanceof Error) throw (Error) e.getCause();
+      throw e;
+    }
+  }
+
+  public int size() {
+    synchronized (entries) {
+      return entries.size();
+    }
+  }
+
+  @EventListener
+  public void onFiresSaved(FiresSavedEvent event) {
+    invalidate();
+  }
+
+  @EventListener
+  public void onFiresUpdated(FiresUpdatedEvent event) {
+    invalidate();
+  }
+
+  // Writes through the Spring Data REST /fires resource do not go through the ingest path.
+  @EventListener({AfterCreateEvent.class, AfterSaveEvent.class, AfterDeleteEvent.class})
+  public void onRepositoryChange() {
+    invalidate();
+  }
+
+  // Requests arriving after the write start a computation of their own.
+  private void invalidate() {
+    version.bump();
+    computing.clear();
+    synchronized (entries) {
+      entries.clear();
+      bytes = 0;
+    }
+  }
+
+  private void evict() {
+    final Iterator<Map.Entry<String, Response>> eldest = entries.entrySet().iterator();
+    while (bytes > maxBytes && eldest.hasNext()) {
+      bytes -= eldest.next().getValue().getBody().length;
+      eldest.remove();
+      evictions.increment();
+    }
+  }
+
+  private static String etag(long version) {
+    return "\"" + version + "\"";
+  }
+
+  @Getter
+  @AllArgsConstructor
+  public static class Response {
+    private final byte[] body;
+    private final String etag;
+  }
+}
@@ -0,0 +1,343 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FireFilter;
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import edu.uci.banerjee.burnserver.model.Statistics;
+import edu.uci.banerjee.burnserver.model.StatisticsCell;
+import edu.uci.banerjee.burnserver.model.StatisticsGroup;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.event.AfterCreateEvent;
+import org.springframework.data.rest.core.event.AfterDeleteEvent;
+import org.springframework.data.rest.core.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * In-memory rollup of count/sum/min/max acres per (source, county, burnType, treatmentType, year,
+ * month, owner, escaped). It is built once before the web server starts and then kept current from
+ * {@link FiresSavedEvent}s and {@link FiresUpdatedEvent}s, so statistics whose filters only touch
+ * those dimensions are computed from the cells instead of scanning {@code fires}. Built at startup
+ * even with lazy initialization, so it is ready for the first request.
+ *
+ * <p>An update moves its fire's count and acres from the cell it was in to its new one. Removing
+ * the smallest or largest acres of a cell leaves its min or max unknown, so the next read
+ * recomputes just those cells. Changes the cells cannot apply incrementally mark the whole cube
+ * stale, and the next read rebuilds it. Both run under {@link FireChangeLock} and swap the new
+ * cells in.
+ */
+@Service
+@Lazy(false)
+@Slf4j
+public class StatisticsCube implements SmartInitializingSingleton {
+  private final FiresRepo repo;
+  private final FireChangeLock changeLock;
+  private final PrimaryReads primaryReads;
+  private final boolean enabled;
+  private Map<CellKey, Cell> cells = new HashMap<>();
+  // Cells whose min or max acres may have been removed by an update.
+  private final Set<CellKey> staleCells = new HashSet<>();
+  private boolean ready;
+  // Bumped by every change that needs a rebuild; the cells are current when it equals builtVersion.
+  private long version;
+  private long builtVersion;
+
+  public StatisticsCube(
+      FiresRepo repo,
+      FireChangeLock changeLock,
+      PrimaryReads primaryReads,
+      @Value("${burn.statistics.cube.enabled:true}") boolean enabled) {
+    this.repo = repo;
+    this.changeLock = changeLock;
+    this.primaryReads = primaryReads;
+    this.enabled = enabled;
+  }
+
+  @Override
+  public void afterSingletonsInstantiated() {
+    if (enabled) rebuild();
+  }
+
+  public void rebuild() {
+    changeLock.snapshot(this::build);
+  }
+
+  // Holds the exclusive side of the change lock, so no FiresSavedEvent arrives during the build.
+  private void build() {
+    final long start = System.currentTimeMillis();
+    final long buildingVersion;
+    synchronized (this) {
+      buildingVersion = version;
+    }
+
+    final Map<CellKey, Cell> rebuilt = new HashMap<>();
+    for (StatisticsCell row : primaryReads.read(repo::statisticsCells)) {
+      rebuilt.put(
+          new CellKey(
+              row.getSource(),
+              row.getCounty(),
+              row.getBurnType(),
+              row.getTreatmentType(),
+              row.getYear(),
+              row.getMonth(),
+              row.getOwner(),
+              row.getEscaped()),
+          Cell.of(row));
+    }
+
+    synchronized (this) {
+      cells = rebuilt;
+      staleCells.clear();
+      ready = true;
+      builtVersion = buildingVersion;
+    }
+    log.info(
+        "Built statistics cube with {} cells in {} ms.",
+        rebuilt.size(),
+        System.currentTimeMillis() - start);
+  }
+
+  @EventListener
+  public synchronized void onFiresSaved(FiresSavedEvent event) {
+    if (!ready) return;
+
+    for (Fire fire : event.getFires()) {
+      cells.computeIfAbsent(CellKey.of(fire), k -> new Cell()).add(fire.getAcres());
+    }
+  }
+
+  @EventListener
+  public synchronized void onFiresUpdated(FiresUpdatedEvent event) {
+    if (!ready) return;
+
+    for (int i = 0; i < event.getFires().size(); i++) {
+      final var previous = event.getPrevious().get(i);
+      final var fire = event.getFires().get(i);
+      final var previousKey = CellKey.of(previous);
+      final var key = CellKey.of(fire);
+      if (previousKey.equals(key) && previous.getAcres() == fire.getAcres()) continue;
+
+      final var cell = cells.get(previousKey);
+      if (cell == null || cell.count == 1) {
+        cells.remove(previousKey);
+        staleCells.remove(previousKey);
+      } else if (cell.remove(previous.getAcres())) {
+        staleCells.add(previousKey);
+      }
+      cells.computeIfAbsent(key, k -> new Cell()).add(fire.getAcres());
+    }
+  }
+
+  // Writes through the Spring Data REST /fires resource commit outside the change lock, so even
+  // creates are left to a rebuild instead of being added to the cells.
+  @EventListener({AfterCreateEvent.class, AfterSaveEvent.class, AfterDeleteEvent.class})
+  public synchronized void onRepositoryChange() {
+    version++;
+  }
+
+  /** Whether every filter set in {@code filter} is one of the cube dimensions. */
+  public boolean supports(FireFilter filter) {
+    return enabled
+        && filter.getCountyUnitId() == null
+        && filter.getMinAcres() == null
+        && filter.getMaxAcres() == null
+        && filter.getMinSeverity() == null
+        && filter.getMaxSeverity() == null
+        && !filter.hasBoundingBox();
+  }
+
+  /** Answers from the cube when the filter is supported, using the same semantics as the SQL. */
+  public Optional<Statistics> statistics(FireFilter filter) {
+    if (!supports(filter)) return Optional.empty();
+    synchronized (this) {
+      if (!ready) return Optional.empty();
+    }
+    // Reads that find the cube stale together wait for one rebuild instead of running one each.
+    if (isStale()) changeLock.snapshot(this::buildIfStale);
+
+    final Map<GroupKey, Cell> groups = new HashMap<>();
+    synchronized (this) {
+      for (Map.Entry<CellKey, Cell> entry : cells.entrySet()) {
+        final var key = entry.getKey();
+        if (!key.matches(filter)) continue;
+        groups
+            .computeIfAbsent(new GroupKey(key.year, key.county), k -> new Cell())
+            .merge(entry.getValue(), Boolean.TRUE.equals(key.escaped));
+      }
+    }
+
+    final var rows = new ArrayList<StatisticsGroup>(groups.size());
+    for (Map.Entry<GroupKey, Cell> entry : groups.entrySet()) {
+      final var cell = entry.getValue();
+      rows.add(
+          new StatisticsGroup(
+              entry.getKey().year,
+              entry.getKey().county,
+              cell.count,
+              cell.totalAcres,
+              Double.isNaN(cell.minAcres) ? null : cell.minAcres,
+              Double.isNaN(cell.maxAcres) ? null : cell.maxAcres,
+              cell.escapedCount));
+    }
+    return Optional.of(Statistics.of(rows));
+  }
+
+  private synchronized boolean isStale() {
+    return version != builtVersion || !staleCells.isEmpty();
+  }
+
+  private void buildIfStale() {
+    final boolean rebuild;
+    final List<CellKey> recompute;
+    synchronized (this) {
+      rebuild = version != builtVersion;
+      recompute = new ArrayList<>(staleCells);
+    }
+    if (rebuild) {
+      build();
+    } else if (!recompute.isEmpty()) {
+      recompute(recompute);
+    }
+  }
+
+  // Holds the exclusive side of the change lock, so the cells match the table while they are read.
+  private void recompute(List<CellKey> keys) {
+    final Map<CellKey, StatisticsCell> rows = new HashMap<>();
+    primaryReads.run(
+        () -> {
+          for (CellKey key : keys) rows.put(key, key.read(repo));
+        });
+
+    synchronized (this) {
+      for (Map.Entry<CellKey, StatisticsCell> entry : rows.entrySet()) {
+        final var row = entry.getValue();
+        if (row.getCount() == 0) {
+          cells.remove(entry.getKey());
+        } else {
+          cells.put(entry.getKey(), Cell.of(row));
+        }
+        staleCells.remove(entry.getKey());
+      }
+    }
+    log.debug("Recomputed {} statistics cube cells.", rows.size());
+  }
+
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static class CellKey {
+    private final String source;
+    private final String county;
+    private final String burnType;
+    private final String treatmentType;
+    private final Integer year;
+    private final Integer month;
+    private final String owner;
+    private final Boolean escaped;
+
+    static CellKey of(Fire fire) {
+      return new CellKey(
+          fire.getSource(),
+          fire.getCounty(),
+          fire.getBurnType(),
+          fire.getTreatmentType(),
+          fire.getYear(),
+          fire.getMonth(),
+          fire.getOwner(),
+          fire.getEscaped());
+    }
+
+    StatisticsCell read(FiresRepo repo) {
+      return repo.statisticsCell(
+          source, county, burnType, treatmentType, year, month, owner, escaped);
+    }
+
+    // Mirrors FireSpecifications: a null column never satisfies a comparison.
+    boolean matches(FireFilter filter) {
+      return equalsIfSet(filter.getSource(), source)
+          && (filter.getCounty() == null
+              || (county != null && county.startsWith(filter.getCounty())))
+          && equalsIfSet(filter.getBurnType(), burnType)
+          && equalsIfSet(filter.getTreatmentType(), treatmentType)
+          && atLeastIfSet(filter.getStartYear(), year)
+          && atMostIfSet(filter.getEndYear(), year)
+          && atLeastIfSet(filter.getStartMonth(), month)
+          && atMostIfSet(filter.getEndMonth(), month)
+          && equalsIfSet(filter.getOwner(), owner)
+          && equalsIfSet(filter.getEscaped(), escaped);
+    }
+
+    private static boolean equalsIfSet(Object expected, Object actual) {
+      return expected == null || Objects.equals(expected, actual);
+    }
+
+    private static boolean atLeastIfSet(Integer bound, Integer actual) {
+      return bound == null || (actual != null && actual >= bound);
+    }
+
+    private static boolean atMostIfSet(Integer bound, Integer actual) {
+      return bound == null || (actual != null && actual <= bound);
+    }
+  }
+
+  @EqualsAndHashCode
+  @AllArgsConstructor
+  private static class GroupKey {
+    private final Integer year;
+    private final String county;
+  }
+
+  private static class Cell {
+    private long count;
+    private long escapedCount;
+    private double totalAcres;
+    private double minAcres = Double.NaN;
+    private double maxAcres = Double.NaN;
+
+    static Cell of(StatisticsCell row) {
+      final var cell = new Cell();
+      cell.count = row.getCount();
+      cell.totalAcres = row.getTotalAcres();
+      cell.minAcres = row.getMinAcres() == null ? Double.NaN : row.getMinAcres();
+      cell.maxAcres = row.getMaxAcres() == null ? Double.NaN : row.getMaxAcres();
+      return cell;
+    }
+
+    void add(double acres) {
+      count++;
+      totalAcres += acres;
+      minAcres = Double.isNaN(minAcres) ? acres : Math.min(minAcres, acres);
+      maxAcres = Double.isNaN(maxAcres) ? acres : Math.max(maxAcres, acres);
+    }
+
+    /** Takes one fire out of the cell; returns whether its min or max may have changed. */
+    boolean remove(double acres) {
+      count--;
+      totalAcres -= acres;
+      return acres <= minAcres || acres >= maxAcres;
+    }
+
+    void merge(Cell other, boolean escaped) {
+      count += other.count;
+      if (escaped) escapedCount += other.count;
+      totalAcres += other.totalAcres;
+      if (!Double.isNaN(other.minAcres))
+        minAcres = Double.isNaN(minAcres) ? other.minAcres : Math.min(minAcres, other.minAcres);
+      if (!Double.isNaN(other.maxAcres))
+        maxAcres = Double.isNaN(maxAcres) ? other.maxAcres : Math.max(maxAcres, other.maxAcres);
+    }
+  }
+}
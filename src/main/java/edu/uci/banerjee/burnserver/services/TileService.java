@@ -0,0 +1,194 @@
+package edu.uci.banerjee.burnserver.services;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.rest.core.event.AfterCreateEvent;
+import org.springframework.data.rest.core.event.AfterDeleteEvent;
+import org.springframework.data.rest.core.event.AfterSaveEvent;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Builds clustered fire tiles in the web mercator tiling scheme and caches them until a saved fire
+ * lands inside them, or until any fire is changed through the Spring Data REST resource.
+ *
+ * <p>A tile is a big-endian packed list: an int32 cluster count followed by, per cluster, uint16 x
+ * and uint16 y (the cluster centroid in tile coordinates, 0 to {@value #EXTENT}), int32 fire count
+ * and float32 total acres. Clusters are the non-empty cells of a {@value #GRID} by {@value #GRID}
+ * grid over the tile.
+ */
+@Service
+@Slf4j
+public class TileService {
+  public static final int MAX_ZOOM = 22;
+  private static final int EXTENT = 4096;
+  private static final int GRID = 64;
+  private static final double MAX_LATITUDE = 85.0511287798;
+
+  private final FireQueryService fireQueryService;
+  private final PrimaryReads primaryReads;
+  private final Map<Long, byte[]> cache;
+  private final AtomicLong generation = new AtomicLong();
+
+  public TileService(
+      FireQueryService fireQueryService,
+      PrimaryReads primaryReads,
+      @Value("${burn.tiles.cache.max-entries:5000}") int maxEntries) {
+    this.fireQueryService = fireQueryService;
+    this.primaryReads = primaryReads;
+    this.cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            return size() > maxEntries;
+          }
+        };
+  }
+
+  public static boolean isValid(int z, int x, int y) {
+    return z >= 0 && z <= MAX_ZOOM && x >= 0 && y >= 0 && x < (1 << z) && y < (1 << z);
+  }
+
+  public byte[] tile(int z, int x, int y) {
+    final long key = key(z, x, y);
+    synchronized (cache) {
+      final var cached = cache.get(key);
+      if (cached != null) return cached;
+    }
+
+    // A fire saved while this tile is being built bumps the generation, and the tile is then
+    // returned without being cached so the next request sees the new fire.
+    final long startGeneration = generation.get();
+    final var tile = build(z, x, y);
+    synchronized (cache) {
+      if (generation.get() == startGeneration) cache.put(key, tile);
+    }
+    return tile;
+  }
+
+  @EventListener
+  public void onFiresSaved(FiresSavedEvent event) {
+    invalidate(event.getFires());
+  }
+
+  @EventListener
+  public void onFiresUpdated(FiresUpdatedEvent event) {
+    invalidate(event.getFires());
+  }
+
+  // A fire saved or deleted through the Spring Data REST /fires resource may have moved from
+  // coordinates that are no longer known, so every tile is dropped.
+  @EventListener({AfterCreateEvent.class, AfterSaveEvent.class, AfterDeleteEvent.class})
+  public void onRepositoryChange() {
+    generation.incrementAndGet();
+    synchronized (cache) {
+      cache.clear();
+    }
+  }
+
+  private void invalidate(List<Fire> fires) {
+    generation.incrementAndGet();
+    synchronized (cache) {
+      if (cache.isEmpty()) return;
+      for (Fire fire : fires) {
+        final double worldX = worldX(fire.getLongitude());
+        final double worldY = worldY(fire.getLatitude());
+        for (int z = 0; z <= MAX_ZOOM; z++) {
+          final int tiles = 1 << z;
+          final int x = Math.min(tiles - 1, (int) (worldX * tiles));
+          final int y = Math.min(tiles - 1, (int) (worldY * tiles));
+          cache.remove(key(z, x, y));
+        }
+      }
+    }
+  }
+
+  private byte[] build(int z, int x, int y) {
+    final int tiles = 1 << z;
+    final double west = x * 360.0 / tiles - 180;
+    final double east = (x + 1) * 360.0 / tiles - 180;
+    final double north = latitude(y, tiles);
+    final double south = latitude(y + 1, tiles);
+
+    final Map<Integer, Cluster> clusters = new HashMap<>();
+    primaryReads.run(
+        () ->
+            fireQueryService.forEachPoint(
+                west,
+                south,
+                east,
+                north,
+                point -> {
+                  final double px = (worldX(point.getLongitude()) * tiles - x) * EXTENT;
+                  final double py = (worldY(point.getLatitude()) * tiles - y) * EXTENT;
+                  final int cell = cell(px) * GRID + cell(py);
+                  clusters.computeIfAbsent(cell, c -> new Cluster()).add(px, py, point.getAcres());
+                }));
+
+    final var bytes = new ByteArrayOutputStream(4 + clusters.size() * 12);
+    try (var out = new DataOutputStream(bytes)) {
+      out.writeInt(clusters.size());
+      for (Cluster cluster : clusters.values()) {
+        out.writeShort(clamp(cluster.sumX / cluster.count));
+        out.writeShort(clamp(cluster.sumY / cluster.count));
+        out.writeInt(cluster.count);
+        out.writeFloat((float) cluster.acres);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    log.debug("Built tile {}/{}/{} with {} clusters.", z, x, y, clusters.size());
+    return bytes.toByteArray();
+  }
+
+  private static int cell(double tileCoordinate) {
+    return Math.max(0, Math.min(GRID - 1, (int) (tileCoordinate * GRID / EXTENT)));
+  }
+
+  private static int clamp(double tileCoordinate) {
+    return (int) Math.max(0, Math.min(EXTENT, Math.round(tileCoordinate)));
+  }
+
+  private static double worldX(double lon) {
+    return (lon + 180) / 360;
+  }
+
+  private static double worldY(double lat) {
+    final double clamped = Math.max(-MAX_LATITUDE, Math.min(MAX_LATITUDE, lat));
+    final double sin = Math.sin(Math.toRadians(clamped));
+    return 0.5 - Math.log((1 + sin) / (1 - sin)) / (4 * Math.PI);
+  }
+
+  private static double latitude(int y, int tiles) {
+    return Math.toDegrees(Math.atan(Math.sinh(Math.PI * (1 - 2.0 * y / tiles))));
+  }
+
+  private static long key(int z, int x, int y) {
+    return ((long) z << 58) | ((long) x << 29) | y;
+  }
+
+  private static class Cluster {
+    private int count;
+    private double sumX;
+    private double sumY;
+    private double acres;
+
+    void add(double x, double y, double acres) {
+      count++;
+      sumX += x;
+      sumY += y;
+      this.acres += acres;
+    }
+  }
+}
@@ -0,0 +1,25 @@
+-- The fires table as Hibernate created it before the schema was managed by Flyway. Databases
+-- created that way are baselined at this version and skip it.
+CREATE TABLE fires (
+  id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+  acres DOUBLE PRECISION NOT NULL,
+  burn_type VARCHAR(255),
+  treatment_type VARCHAR(255),
+  county_unit_id VARCHAR(255),
+  county VARCHAR(255),
+  latitude DOUBLE PRECISION NOT NULL,
+  longitude DOUBLE PRECISION NOT NULL,
+  name VARCHAR(255),
+  source VARCHAR(255),
+  year INTEGER NOT NULL,
+  month INTEGER,
+  day INTEGER,
+  owner VARCHAR(255),
+  severity DOUBLE PRECISION,
+  escaped BOOLEAN
+);
+
+CREATE INDEX sourceIndex ON fires (source);
+CREATE INDEX countyIndex ON fires (county);
+CREATE INDEX yearIndex ON fires (year);
+CREATE INDEX escapedIndex ON fires (escaped);
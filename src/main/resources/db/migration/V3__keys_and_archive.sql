@@ -0,0 +1,37 @@
+-- Columns, indexes and tables added while Hibernate still updated the schema, so they may exist.
+
+-- Ids come from a sequence handing out blocks of 50 (Fire.ID_ALLOCATION_SIZE).
+CREATE SEQUENCE IF NOT EXISTS fires_seq START WITH 1 INCREMENT BY 50;
+
+ALTER TABLE fires ADD COLUMN IF NOT EXISTS ownership_pending BOOLEAN;
+ALTER TABLE fires ADD COLUMN IF NOT EXISTS spatial_key BIGINT;
+ALTER TABLE fires ADD COLUMN IF NOT EXISTS natural_key VARCHAR(32);
+ALTER TABLE fires ADD COLUMN IF NOT EXISTS row_hash BIGINT;
+
+CREATE INDEX IF NOT EXISTS spatialIndex ON fires (spatial_key);
+CREATE INDEX IF NOT EXISTS sourceYearIndex ON fires (source, year);
+CREATE INDEX IF NOT EXISTS countyYearIndex ON fires (county, year);
+CREATE INDEX IF NOT EXISTS yearMonthIndex ON fires (year, month);
+CREATE INDEX IF NOT EXISTS severityIndex ON fires (severity);
+CREATE INDEX IF NOT EXISTS ownershipPendingIndex ON fires (ownership_pending);
+CREATE UNIQUE INDEX IF NOT EXISTS naturalKeyIndex ON fires (natural_key);
+
+-- Years before archived_before are archived; their statistics cells are kept below.
+CREATE TABLE IF NOT EXISTS fire_archive (
+  archived_before INTEGER NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS fire_archive_statistics (
+  source VARCHAR(255),
+  county VARCHAR(255),
+  burn_type VARCHAR(255),
+  treatment_type VARCHAR(255),
+  year INTEGER NOT NULL,
+  month INTEGER,
+  owner VARCHAR(255),
+  escaped BOOLEAN,
+  fire_count BIGINT NOT NULL,
+  total_acres DOUBLE PRECISION,
+  min_acres DOUBLE PRECISION,
+  max_acres DOUBLE PRECISION
+);
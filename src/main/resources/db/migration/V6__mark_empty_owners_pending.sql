@@ -0,0 +1,2 @@
+-- Failed ownership lookups used to be stored as an empty owner; queue those rows for the backfill.
+UPDATE fires SET ownership_pending = TRUE, owner = NULL WHERE owner = '';
@@ -1,6 +1,7 @@
 package edu.uci.banerjee.burnserver;
 
 import edu.uci.banerjee.burnserver.controller.BurnsController;
+import edu.uci.banerjee.burnserver.services.FireBatchEncoder;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -8,11 +9,20 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -43,10 +53,106 @@ public class BurnsControllerTest {
     mockMvc.perform(multipart("/load/file").file(file)).andExpect(status().isOk());
   }
 
+  @Test
+  public void loadBurnDataFromFilesReportsFailedJobs() throws Exception {
+    MockMultipartFile valid =
+        new MockMultipartFile(
+            "file", "valid.csv", MediaType.TEXT_PLAIN_VALUE, "Test file".getBytes());
+    MockMultipartFile invalid =
+        new MockMultipartFile(
+            "file", "invalid.csv", MediaType.TEXT_PLAIN_VALUE, "Test\nfile".getBytes());
+
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    mockMvc
+        .perform(multipart("/load/file").file(valid).file(invalid))
+        .andExpect(status().isMultiStatus());
+    mockMvc
+        .perform(multipart("/load/file").file(invalid))
+        .andExpect(status().isUnprocessableEntity())
+        .andExpect(jsonPath("$[0].status").value("FAILED"));
+  }
+
   @Test
   public void loadBurnDataFromStringExists() throws Exception {
 
     MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
-    mockMvc.perform(multipart("/load").contentType(MediaType.TEXT_PLAIN).content("test")).andExpect(status().isOk());
+    mockMvc.perform(multipart("/load").contentType(MediaType.TEXT_PLAIN).content("test")).andExpect(status().isAccepted());
+  }
+
+  @Test
+  public void loadBurnDataJobStatus() throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    String location =
+        mockMvc
+            .perform(multipart("/load").contentType(MediaType.TEXT_PLAIN).content("test"))
+            .andExpect(status().isAccepted())
+            .andExpect(jsonPath("$.id").isNotEmpty())
+            .andReturn()
+            .getResponse()
+            .getHeader("Location");
+
+    mockMvc.perform(get(location)).andExpect(status().isOk()).andExpect(jsonPath("$.status").exists());
+  }
+
+  @Test
+  public void unknownJobNotFound() throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    mockMvc.perform(get("/load/jobs/missing")).andExpect(status().isNotFound());
+  }
+
+  @Test
+  public void queryWithLimitExists() throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    mockMvc
+        .perform(get("/query").param("limit", "10").param("after", "0"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$._embedded.fires").isArray());
+  }
+
+  @Test
+  public void queryStreamsNdjson() throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    MvcResult result =
+        mockMvc
+            .perform(get("/query").accept(MediaType.APPLICATION_NDJSON))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    mockMvc
+        .perform(asyncDispatch(result))
+        .andExpect(status().isOk())
+        .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON));
+  }
+
+  @Test
+  public void statisticsCarryEtag() throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    mockMvc
+        .perform(get("/statistics").header("If-None-Match", "\"stale\""))
+        .andExpect(status().isOk())
+        .andExpect(header().exists("ETag"))
+        .andExpect(jsonPath("$.numFires").isNumber());
+  }
+
+  @Test
+  public void queryStreamsColumnarBatches() throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    MvcResult result =
+        mockMvc
+            .perform(get("/query").accept(BurnsController.FIRE_BATCHES_MEDIA_TYPE))
+            .andExpect(request().asyncStarted())
+            .andReturn();
+
+    final var body =
+        mockMvc
+            .perform(asyncDispatch(result))
+            .andExpect(status().isOk())
+            .andExpect(content().contentType(BurnsController.FIRE_BATCHES_MEDIA_TYPE))
+            .andReturn()
+            .getResponse()
+            .getContentAsByteArray();
+
+    final var in = new DataInputStream(new ByteArrayInputStream(body));
+    Assertions.assertThat(in.readInt()).isEqualTo(FireBatchEncoder.MAGIC);
   }
 }
@@ -0,0 +1,145 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FireFilter;
+import edu.uci.banerjee.burnserver.services.ColumnarFireStore;
+import edu.uci.banerjee.burnserver.services.FireQueryService;
+import edu.uci.banerjee.burnserver.services.FiresSavedEvent;
+import edu.uci.banerjee.burnserver.services.PrimaryReads;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+public class ColumnarFireStoreTest {
+  private ColumnarFireStore store;
+
+  @BeforeEach
+  @SuppressWarnings("unchecked")
+  void initialize() {
+    final var fireQueryService = Mockito.mock(FireQueryService.class);
+    Mockito.doAnswer(
+            invocation -> {
+              final Consumer<Fire> action = invocation.getArgument(1);
+              action.accept(
+                  fire(
+                      3, 10.0, "Modesto", 37.6, -121.0, "CALFIRE", 2010, 12, "Private", false));
+              action.accept(
+                  fire(1, 4.0, "Modesto", 37.7, -121.1, "CALFIRE", 2010, 11, "Private", null));
+              action.accept(
+                  fire(2, 100.0, "Butte", 39.7, -121.6, "USFS", 2015, null, "Federal", true));
+              return null;
+            })
+        .when(fireQueryService)
+        .forEach(ArgumentMatchers.any(FireFilter.class), ArgumentMatchers.any(Consumer.class));
+
+    store = new ColumnarFireStore(fireQueryService, new PrimaryReads(), true);
+    store.afterSingletonsInstantiated();
+  }
+
+  @Test
+  public void queryReturnsMatchesInIdOrder() {
+    final var filter = new FireFilter();
+    filter.setCounty("Mod");
+
+    final var fires = store.query(filter, null, null).orElseThrow();
+
+    Assertions.assertThat(fires).extracting(Fire::getId).containsExactly(1, 3);
+    Assertions.assertThat(fires.get(0).getEscaped()).isNull();
+    Assertions.assertThat(fires.get(1).getMonth()).isEqualTo(12);
+  }
+
+  @Test
+  public void queryPagesAfterCursor() {
+    final var fires = store.query(new FireFilter(), 1, 1).orElseThrow();
+
+    Assertions.assertThat(fires).extracting(Fire::getId).containsExactly(2);
+  }
+
+  @Test
+  public void nullColumnsNeverMatchComparisons() {
+    final var filter = new FireFilter();
+    filter.setStartMonth(1);
+
+    Assertions.assertThat(store.query(filter, null, null).orElseThrow())
+        .extracting(Fire::getId)
+        .containsExactly(1, 3);
+
+    filter.setStartMonth(null);
+    filter.setSource("NPS");
+    Assertions.assertThat(store.query(filter, null, null).orElseThrow()).isEmpty();
+  }
+
+  @Test
+  public void statisticsAggregateColumns() {
+    final var stats = store.statistics(new FireFilter()).orElseThrow();
+
+    Assertions.assertThat(stats.getNumFires()).isEqualTo(3);
+    Assertions.assertThat(stats.getTotalAcres()).isEqualTo(114.0);
+    Assertions.assertThat(stats.getMinSize()).isEqualTo(4.0);
+    Assertions.assertThat(stats.getMaxSize()).isEqualTo(100.0);
+    Assertions.assertThat(stats.getEscapedRatio()).isEqualTo(1.0 / 3);
+    Assertions.assertThat(stats.getFiresByCounty()).containsEntry("Modesto", 2L);
+  }
+
+  @Test
+  public void boundingBoxAndAcres() {
+    final var filter = new FireFilter();
+    filter.setWest(-121.05);
+    filter.setSouth(37.0);
+    filter.setEast(-120.0);
+    filter.setNorth(38.0);
+    filter.setMinAcres(5.0);
+
+    Assertions.assertThat(store.statistics(filter).orElseThrow().getNumFires()).isEqualTo(1);
+  }
+
+  @Test
+  public void savedFiresAreAppended() {
+    store.onFiresSaved(
+        new FiresSavedEvent(
+            List.of(fire(4, 50.0, "Butte", 39.8, -121.5, "USFS", 2018, 11, "Federal", true))));
+
+    final var filter = new FireFilter();
+    filter.setSource("USFS");
+
+    Assertions.assertThat(store.statistics(filter).orElseThrow().getNumFires()).isEqualTo(2);
+  }
+
+  @Test
+  public void repositoryWritesAreApplied() {
+    store.onFireCreated(fire(4, 50.0, "Butte", 39.8, -121.5, "USFS", 2018, 11, "Federal", true));
+    store.onFireSaved(
+        fire(3, 20.0, "Modesto", 37.6, -121.0, "CALFIRE", 2010, 12, "Private", false));
+    store.onFireDeleted(
+        fire(1, 4.0, "Modesto", 37.7, -121.1, "CALFIRE", 2010, 11, "Private", null));
+
+    final var fires = store.query(new FireFilter(), null, null).orElseThrow();
+
+    Assertions.assertThat(fires).extracting(Fire::getId).containsExactly(2, 3, 4);
+    Assertions.assertThat(fires.get(1).getAcres()).isEqualTo(20.0);
+  }
+
+  private static Fire fire(
+      int id,
+      double acres,
+      String county,
+      double lat,
+      double lon,
+      String source,
+      int year,
+      Integer month,
+      String owner,
+      Boolean escaped) {
+    final var fire =
+        new Fire(
+            acres, "Broadcast", null, null, county, lat, lon, "fire-" + id, source, year, month,
+            1, owner, null, escaped);
+    fire.setId(id);
+    return fire;
+  }
+}
@@ -0,0 +1,94 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import edu.uci.banerjee.burnserver.services.DataIngestService;
+import edu.uci.banerjee.burnserver.services.IngestJob;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static edu.uci.banerjee.burnserver.IngestFixture.HEADER;
+import static edu.uci.banerjee.burnserver.IngestFixture.ingest;
+
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:ingest;DB_CLOSE_DELAY=-1",
+      "burn.ownership.remote-fallback=false"
+    })
+public class DataIngestServiceTest {
+  @Autowired private DataIngestService ingestService;
+
+  @Autowired private FiresRepo repo;
+
+  @Test
+  public void reloadingSameFileWritesNothing() {
+    final var name = UUID.randomUUID().toString();
+    final var csv =
+        HEADER
+            + name
+            + "-1,12.5,38.9,-121.05,Broadcast,,NEU,Nevada,CALFIRE,false,2020-03-14\n"
+            + name
+            + "-2,40.0,38.8,-121.10,Pile,,NEU,Nevada,CALFIRE,false,2020-03-15\n";
+
+    final var first = ingest(ingestService, csv);
+    final var second = ingest(ingestService, csv);
+
+    Assertions.assertThat(first.getRowsInserted()).isEqualTo(2);
+    Assertions.assertThat(second.getRowsInserted()).isZero();
+    Assertions.assertThat(second.getRowsUpdated()).isZero();
+    Assertions.assertThat(second.getRowsSkipped()).isEqualTo(2);
+    Assertions.assertThat(repo.findAll())
+        .filteredOn(fire -> fire.getName().startsWith(name))
+        .hasSize(2);
+  }
+
+  @Test
+  public void changedFiresAreUpdatedInPlace() {
+    final var name = UUID.randomUUID().toString();
+    final var row = ",38.9,-121.05,Broadcast,,NEU,Nevada,CALFIRE,false,2020-03-14\n";
+
+    ingest(ingestService, HEADER + name + ",12.5" + row);
+    final var reload = ingest(ingestService, HEADER + name + ",20.0" + row);
+
+    Assertions.assertThat(reload.getRowsInserted()).isZero();
+    Assertions.assertThat(reload.getRowsUpdated()).isEqualTo(1);
+    final var stored =
+        repo.findAll().stream()
+            .filter(fire -> name.equals(fire.getName()))
+            .collect(Collectors.toList());
+    Assertions.assertThat(stored).hasSize(1);
+    Assertions.assertThat(stored.get(0).getAcres()).isEqualTo(20.0);
+  }
+
+  @Test
+  public void concurrentLoadsOfTheSameFileStoreEachFireOnce() {
+    final var name = UUID.randomUUID().toString();
+    final var csv = new StringBuilder(HEADER);
+    for (int i = 0; i < 200; i++) {
+      csv.append(name)
+          .append('-')
+          .append(i)
+          .append(",12.5,38.9,-121.05,Broadcast,,NEU,Nevada,CALFIRE,false,2020-03-14\n");
+    }
+
+    final var loads =
+        List.of(
+            CompletableFuture.supplyAsync(() -> ingest(ingestService, csv.toString())),
+            CompletableFuture.supplyAsync(() -> ingest(ingestService, csv.toString())));
+    final var jobs = loads.stream().map(CompletableFuture::join).collect(Collectors.toList());
+
+    Assertions.assertThat(jobs)
+        .allSatisfy(job -> Assertions.assertThat(job.getRowsFailed()).isZero());
+    Assertions.assertThat(jobs.get(0).getRowsInserted() + jobs.get(1).getRowsInserted())
+        .isEqualTo(200);
+    Assertions.assertThat(repo.findAll())
+        .filteredOn(fire -> fire.getName().startsWith(name))
+        .hasSize(200);
+  }
+}
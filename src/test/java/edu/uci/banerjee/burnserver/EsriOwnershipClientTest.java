@@ -0,0 +1,174 @@
+package edu.uci.banerjee.burnserver;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import edu.uci.banerjee.burnserver.services.EsriOwnershipClient;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+public class EsriOwnershipClientTest {
+  private static final String FEDERAL =
+      "{\"features\":[{\"attributes\":{\"OWN_LEVEL\":\"Federal\"}}]}";
+  private static final String NONE = "{\"features\":[]}";
+  private static final Pattern POINT = Pattern.compile("\\[(-?[0-9.]+),(-?[0-9.]+)]");
+
+  private HttpServer server;
+  private final ExecutorService pool = Executors.newFixedThreadPool(8);
+  private final ConcurrentLinkedQueue<String> requests = new ConcurrentLinkedQueue<>();
+  private Function<String, Response> handler;
+
+  @BeforeEach
+  public void startServer() throws IOException {
+    server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+    server.setExecutor(pool);
+    server.createContext(
+        "/query",
+        exchange -> {
+          final var form = new String(exchange.getRequestBody().readAllBytes());
+          final var geometry = URLDecoder.decode(form, StandardCharsets.UTF_8);
+          requests.add(geometry);
+          respond(exchange, handler.apply(geometry));
+        });
+    server.start();
+  }
+
+  @AfterEach
+  public void stopServer() {
+    server.stop(0);
+    pool.shutdownNow();
+  }
+
+  @Test
+  public void resolvesPrivateBatchWithOneRequest() {
+    handler = EsriOwnershipClientTest::federalSquare;
+
+    final var owners =
+        client(3).findOwners(new double[] {39, 40, 41}, new double[] {-121, -121, -120.9});
+
+    Assertions.assertThat(owners.join()).containsExactly("Private", "Private", "Private");
+    Assertions.assertThat(requests).hasSize(1);
+    Assertions.assertThat(requests.peek()).contains("returnGeometry=false");
+  }
+
+  @Test
+  public void splitsBatchesTouchingPolygons() {
+    handler = EsriOwnershipClientTest::federalSquare;
+
+    final var owners =
+        client(3).findOwners(new double[] {38, 39, 38.2}, new double[] {-121, -121, -120.9});
+
+    Assertions.assertThat(owners.join()).containsExactly("Federal", "Private", "Federal");
+    Assertions.assertThat(requests).hasSize(5);
+  }
+
+  @Test
+  public void capsRequestsInFlightAcrossSplits() {
+    final var inFlight = new AtomicInteger();
+    final var maxInFlight = new AtomicInteger();
+    handler =
+        geometry -> {
+          maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+          try {
+            Thread.sleep(20);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+          }
+          inFlight.decrementAndGet();
+          return federalSquare(geometry);
+        };
+
+    final double[] lats = new double[16];
+    final double[] lons = new double[16];
+    Arrays.fill(lats, 38);
+    Arrays.fill(lons, -121);
+    final var owners = client(3).findOwners(lats, lons);
+
+    Assertions.assertThat(owners.join()).hasSize(16).containsOnly("Federal");
+    Assertions.assertThat(maxInFlight).hasValueLessThanOrEqualTo(2);
+  }
+
+  @Test
+  public void retriesServerErrors() {
+    handler = geometry -> requests.size() < 3 ? new Response(503, "") : federalSquare(geometry);
+
+    final var owners = client(3).findOwners(new double[] {38}, new double[] {-121});
+
+    Assertions.assertThat(owners.join()).containsExactly("Federal");
+    Assertions.assertThat(requests).hasSize(3);
+  }
+
+  @Test
+  public void failsAfterLastAttempt() {
+    handler = geometry -> new Response(500, "");
+
+    final var owners = client(2).findOwners(new double[] {38}, new double[] {-121});
+
+    Assertions.assertThatThrownBy(owners::join).isInstanceOf(CompletionException.class);
+    Assertions.assertThat(requests).hasSize(2);
+  }
+
+  @Test
+  public void doesNotRetryClientErrors() {
+    handler = geometry -> new Response(400, "");
+
+    final var owners = client(3).findOwners(new double[] {38}, new double[] {-121});
+
+    Assertions.assertThatThrownBy(owners::join).isInstanceOf(CompletionException.class);
+    Assertions.assertThat(requests).hasSize(1);
+  }
+
+  private EsriOwnershipClient client(int maxAttempts) {
+    return new EsriOwnershipClient(
+        "http://localhost:" + server.getAddress().getPort() + "/query",
+        2,
+        0,
+        Duration.ofSeconds(5),
+        maxAttempts,
+        Duration.ofMillis(10));
+  }
+
+  // One Federal square around (38, -121); everything else is private land.
+  private static Response federalSquare(String geometry) {
+    final var points = POINT.matcher(geometry);
+    while (points.find()) {
+      final double lon = Double.parseDouble(points.group(1));
+      final double lat = Double.parseDouble(points.group(2));
+      if (lat >= 37.5 && lat <= 38.5 && lon >= -121.5 && lon <= -120.5)
+        return new Response(200, FEDERAL);
+    }
+    return new Response(200, NONE);
+  }
+
+  private static void respond(HttpExchange exchange, Response response) throws IOException {
+    final var body = response.body.getBytes(StandardCharsets.UTF_8);
+    exchange.sendResponseHeaders(response.status, body.length == 0 ? -1 : body.length);
+    if (body.length > 0) exchange.getResponseBody().write(body);
+    exchange.close();
+  }
+
+  private static class Response {
+    private final int status;
+    private final String body;
+
+    Response(int status, String body) {
+      this.status = status;
+      this.body = body;
+    }
+  }
+}
@@ -0,0 +1,98 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.services.FileIngestService;
+import edu.uci.banerjee.burnserver.services.IngestJob;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.Resource;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static edu.uci.banerjee.burnserver.IngestFixture.HEADER;
+
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:file-ingest;DB_CLOSE_DELAY=-1",
+      "burn.ownership.remote-fallback=false"
+    })
+public class FileIngestServiceTest {
+  @Autowired private FileIngestService fileIngestService;
+
+  @Test
+  public void ingestsEveryCsvInArchivesAndGzipFiles() throws IOException {
+    final var zip = new ByteArrayOutputStream();
+    try (var out = new ZipOutputStream(zip)) {
+      out.putNextEntry(new ZipEntry("2020/calfire.csv"));
+      out.write(csv(2));
+      out.putNextEntry(new ZipEntry("2020/usfs.csv.gz"));
+      out.write(gzip(csv(3)));
+      out.putNextEntry(new ZipEntry("README.txt"));
+      out.write("not a csv".getBytes(StandardCharsets.UTF_8));
+      out.putNextEntry(new ZipEntry("__MACOSX/2020/._calfire.csv"));
+      out.write(new byte[] {0, 5, 22, 7});
+    }
+
+    final var jobs =
+        fileIngestService.ingest(
+            List.of(file("fires.zip", zip.toByteArray()), file("blm.csv.gz", gzip(csv(4)))));
+
+    Assertions.assertThat(jobs)
+        .extracting(IngestJob::getName)
+        .containsExactly(
+            "fires.zip!/2020/calfire.csv", "fires.zip!/2020/usfs.csv.gz", "blm.csv.gz");
+    Assertions.assertThat(jobs)
+        .extracting(IngestJob::getStatus)
+        .containsOnly(IngestJob.Status.SUCCEEDED);
+    Assertions.assertThat(jobs).extracting(IngestJob::getRowsInserted).containsExactly(2L, 3L, 4L);
+  }
+
+  @Test
+  public void failedFileDoesNotStopTheOthers() throws IOException {
+    final var jobs =
+        fileIngestService.ingest(
+            List.of(
+                file("broken.csv", "name,acres\nx,1\n".getBytes(StandardCharsets.UTF_8)),
+                file("fires.csv", csv(2))));
+
+    Assertions.assertThat(jobs.get(0).getStatus()).isEqualTo(IngestJob.Status.FAILED);
+    Assertions.assertThat(jobs.get(1).getStatus()).isEqualTo(IngestJob.Status.SUCCEEDED);
+    Assertions.assertThat(jobs.get(1).getRowsInserted()).isEqualTo(2);
+  }
+
+  private static byte[] csv(int rows) {
+    final var name = UUID.randomUUID().toString();
+    final var csv = new StringBuilder(HEADER);
+    for (int i = 0; i < rows; i++) {
+      csv.append(name).append('-').append(i);
+      csv.append(",12.5,38.9,-121.05,Broadcast,,NEU,Nevada,CALFIRE,false,2020-03-14\n");
+    }
+    return csv.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static byte[] gzip(byte[] data) throws IOException {
+    final var bytes = new ByteArrayOutputStream();
+    try (var out = new GZIPOutputStream(bytes)) {
+      out.write(data);
+    }
+    return bytes.toByteArray();
+  }
+
+  private static Resource file(String name, byte[] data) {
+    return new ByteArrayResource(data) {
+      @Override
+      public String getFilename() {
+        return name;
+      }
+    };
+  }
+}
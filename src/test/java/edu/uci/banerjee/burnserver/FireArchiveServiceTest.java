@@ -0,0 +1,64 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import edu.uci.banerjee.burnserver.model.StatisticsCell;
+import edu.uci.banerjee.burnserver.services.DataIngestService;
+import edu.uci.banerjee.burnserver.services.FireArchiveService;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import static edu.uci.banerjee.burnserver.IngestFixture.HEADER;
+import static edu.uci.banerjee.burnserver.IngestFixture.ingest;
+
+// Archiving cannot be undone, so this runs against its own in-memory database.
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:archive;DB_CLOSE_DELAY=-1",
+      "burn.ownership.remote-fallback=false"
+    })
+public class FireArchiveServiceTest {
+  @Autowired private DataIngestService ingestService;
+
+  @Autowired private FireArchiveService archiveService;
+
+  @Autowired private FiresRepo repo;
+
+  @Test
+  public void archivedYearsKeepTheirStatisticsAndBecomeReadOnly() {
+    ingest(
+        ingestService,
+        HEADER
+            + "old-1,10.0,38.9,-121.05,Broadcast,,NEU,Nevada,CALFIRE,false,1995-03-14\n"
+            + "old-2,30.0,38.9,-121.05,Broadcast,,NEU,Nevada,CALFIRE,false,1995-03-20\n"
+            + "new-1,5.0,38.8,-121.10,Pile,,NEU,Nevada,CALFIRE,false,2020-03-15\n");
+
+    final var summary = archiveService.archive(2000);
+
+    Assertions.assertThat(summary.getArchivedBefore()).isEqualTo(2000);
+    Assertions.assertThat(summary.getFires()).isEqualTo(2);
+    Assertions.assertThat(summary.getCells()).isEqualTo(1);
+    Assertions.assertThat(archiveService.isArchived(1995)).isTrue();
+    Assertions.assertThat(archiveService.isArchived(2020)).isFalse();
+
+    final var cells = repo.statisticsCells();
+    Assertions.assertThat(cells).extracting(StatisticsCell::getYear).containsOnly(1995, 2020);
+    final var archived =
+        cells.stream().filter(cell -> cell.getYear() == 1995).findFirst().orElseThrow();
+    Assertions.assertThat(archived.getCount()).isEqualTo(2);
+    Assertions.assertThat(archived.getTotalAcres()).isEqualTo(40.0);
+    Assertions.assertThat(archived.getMinAcres()).isEqualTo(10.0);
+    Assertions.assertThat(archived.getMaxAcres()).isEqualTo(30.0);
+
+    final var rejected =
+        ingest(
+            ingestService,
+            HEADER + "old-3,1.0,38.9,-121.05,Pile,,NEU,Nevada,CALFIRE,false,1996-01-02\n");
+    Assertions.assertThat(rejected.getRowsFailed()).isEqualTo(1);
+    Assertions.assertThat(rejected.getRowsInserted()).isZero();
+
+    Assertions.assertThatThrownBy(() -> archiveService.archive(1990))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
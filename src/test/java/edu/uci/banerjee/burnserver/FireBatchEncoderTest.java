@@ -0,0 +1,67 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.services.FireBatchEncoder;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+public class FireBatchEncoderTest {
+  @Test
+  public void writesNamesPerBatchAndSharesOtherStrings() throws IOException {
+    final var bytes = new ByteArrayOutputStream();
+    try (var encoder = new FireBatchEncoder(bytes)) {
+      encoder.accept(fire(7, 12.5, "Butte", 3, true));
+      encoder.accept(fire(9, 40.0, "Butte", null, null));
+    }
+
+    final var in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+    Assertions.assertThat(in.readInt()).isEqualTo(FireBatchEncoder.MAGIC);
+    Assertions.assertThat(in.readShort()).isEqualTo(FireBatchEncoder.VERSION);
+    Assertions.assertThat(in.readInt()).isEqualTo(2);
+
+    // source, county and burnType strings; owner, countyUnitId and treatmentType are null.
+    Assertions.assertThat(in.readInt()).isEqualTo(3);
+    Assertions.assertThat(new String[] {in.readUTF(), in.readUTF(), in.readUTF()})
+        .containsExactly("CALFIRE", "Butte", "Broadcast");
+
+    Assertions.assertThat(new int[] {in.readInt(), in.readInt()}).containsExactly(7, 9);
+    Assertions.assertThat(new double[] {in.readDouble(), in.readDouble()})
+        .containsExactly(12.5, 40.0);
+    in.skipBytes(2 * 2 * 8 + 2 * 4);
+    Assertions.assertThat(new int[] {in.readInt(), in.readInt()}).containsExactly(3, -1);
+    in.skipBytes(2 * 4 + 2 * 8);
+    Assertions.assertThat(new byte[] {in.readByte(), in.readByte()}).containsExactly(1, -1);
+
+    Assertions.assertThat(new String[] {readName(in), readName(in)})
+        .containsExactly("fire-7", "fire-9");
+    final int[] sources = {in.readInt(), in.readInt()};
+    final int[] counties = {in.readInt(), in.readInt()};
+    Assertions.assertThat(sources).containsExactly(0, 0);
+    Assertions.assertThat(counties).containsExactly(1, 1);
+    Assertions.assertThat(new int[] {in.readInt(), in.readInt()}).containsExactly(-1, -1);
+    in.skipBytes(3 * 2 * 4);
+    Assertions.assertThat(in.readInt()).isZero();
+    Assertions.assertThat(in.available()).isZero();
+  }
+
+  private static String readName(DataInputStream in) throws IOException {
+    final byte[] bytes = new byte[in.readInt()];
+    in.readFully(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  private static Fire fire(int id, double acres, String county, Integer month, Boolean escaped) {
+    final var fire =
+        new Fire(
+            acres, "Broadcast", null, null, county, 39.7, -121.6, "fire-" + id, "CALFIRE", 2015,
+            month, 1, null, null, escaped);
+    fire.setId(id);
+    return fire;
+  }
+}
@@ -0,0 +1,28 @@
+package edu.uci.banerjee.burnserver;
+
+import com.univocity.parsers.csv.CsvParser;
+import com.univocity.parsers.csv.CsvParserSettings;
+import edu.uci.banerjee.burnserver.services.DataIngestService;
+import edu.uci.banerjee.burnserver.services.IngestJob;
+
+import java.io.StringReader;
+
+/** Upload CSVs for the ingest tests, in the layout of a CAL FIRE export. */
+final class IngestFixture {
+  static final String HEADER =
+      "name,acres,latitude,longitude,burn_type,treatment_type,county_unit_ID,county,source,"
+          + "escaped,date\n";
+
+  private IngestFixture() {}
+
+  /** Saves every row of {@code csv}, a header line included, as one ingest job. */
+  static IngestJob ingest(DataIngestService ingestService, String csv) {
+    final var settings = new CsvParserSettings();
+    settings.setHeaderExtractionEnabled(true);
+    final var records = new CsvParser(settings).parseAllRecords(new StringReader(csv));
+
+    final var job = new IngestJob();
+    ingestService.saveFires(records, job);
+    return job;
+  }
+}
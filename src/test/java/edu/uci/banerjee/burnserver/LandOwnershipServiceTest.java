@@ -1,39 +1,47 @@
 package edu.uci.banerjee.burnserver;
 
+import edu.uci.banerjee.burnserver.model.Fire;
 import edu.uci.banerjee.burnserver.services.LandOwnershipService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.assertj.core.api.Assertions;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 @SpringBootTest
 public class LandOwnershipServiceTest {
     @Autowired
     private LandOwnershipService landService;
 
     @Test
-    public void getOwnershipFromCoordinateTest(){
-        Double lat = 38.90;
-        Double lon = -121.05;
+    public void lookUpOwnersTest(){
+        Fire fire = fire(38.90, -121.05);
+
+        landService.lookUpOwners(List.of(fire)).join();
 
-        Assertions.assertThat(landService.getOwnershipFromCoordinate(lat,lon)).isNotEmpty();
-        Assertions.assertThat(landService.getOwnershipFromCoordinate(lat,lon)).isEqualTo("Federal");
+        Assertions.assertThat(fire.getOwner()).isEqualTo("Federal");
+        Assertions.assertThat(fire.getOwnershipPending()).isFalse();
     }
 
     @Test
-    public void getOwnershipNullTest(){
-        try{
-            landService.getOwnershipFromCoordinate(null,null);
-        }catch(Exception e){
-            Assertions.assertThat(e).isInstanceOf(NullPointerException.class);
-        }
+    public void assignOwnersNullTest(){
+        Assertions.assertThatThrownBy(() -> landService.assignOwners(null))
+                .isInstanceOf(NullPointerException.class);
     }
 
     @Test
-    public void getOwnershipNonCaliforniaCoordinatesTest(){
-        Double lat = 40.73;
-        Double lon = -73.93; //New York Co-ordinates
+    public void lookUpOwnersNonCaliforniaCoordinatesTest(){
+        Fire fire = fire(40.73, -73.93); //New York Co-ordinates
+
+        landService.lookUpOwners(List.of(fire)).join();
+
+        Assertions.assertThat(fire.getOwner()).isEqualTo("Private");
+    }
 
-        Assertions.assertThat(landService.getOwnershipFromCoordinate(lat,lon)).isEqualTo("Private");
+    private static Fire fire(double lat, double lon) {
+        return new Fire(
+                10.0, "Broadcast", null, null, "Nevada", lat, lon, "test", "CALFIRE", 2020, 1, 1,
+                null, null, false);
     }
 }
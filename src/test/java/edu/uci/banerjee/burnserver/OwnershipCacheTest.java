@@ -0,0 +1,142 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.services.OwnershipCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class OwnershipCacheTest {
+  @TempDir Path dir;
+  private final AtomicInteger lookupCalls = new AtomicInteger();
+
+  @Test
+  public void nearbyCoordinatesShareEntry() {
+    final var cache = new OwnershipCache(10, 2, "", new SimpleMeterRegistry());
+
+    lookUp(cache, 38.901, -121.051, "Federal");
+    final var owner = lookUp(cache, 38.899, -121.049, "State");
+
+    Assertions.assertThat(owner).isEqualTo("Federal");
+    Assertions.assertThat(lookupCalls).hasValue(1);
+  }
+
+  @Test
+  public void emptyOwnersAreNotCached() {
+    final var cache = new OwnershipCache(10, 4, "", new SimpleMeterRegistry());
+
+    lookUp(cache, 38.90, -121.05, "");
+
+    Assertions.assertThat(cache.size()).isEqualTo(0);
+    Assertions.assertThat(lookUp(cache, 38.90, -121.05, "Federal")).isEqualTo("Federal");
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsed() {
+    final var registry = new SimpleMeterRegistry();
+    final var cache = new OwnershipCache(2, 4, "", registry);
+
+    lookUp(cache, 1, 1, "a");
+    lookUp(cache, 2, 2, "b");
+    lookUp(cache, 1, 1, "stale");
+    lookUp(cache, 3, 3, "c");
+
+    Assertions.assertThat(cache.size()).isEqualTo(2);
+    Assertions.assertThat(lookUp(cache, 1, 1, "stale")).isEqualTo("a");
+    Assertions.assertThat(lookUp(cache, 2, 2, "reloaded")).isEqualTo("reloaded");
+    Assertions.assertThat(registry.get("cache.evictions").counter().count()).isEqualTo(2.0);
+  }
+
+  @Test
+  public void batchedMissesShareLookupsInFlight() {
+    final var cache = new OwnershipCache(10, 4, "", new SimpleMeterRegistry());
+    lookUp(cache, 1, 1, "Cached");
+    final var lookups = new ArrayList<double[]>();
+    final var pending = new CompletableFuture<List<String>>();
+
+    final var first =
+        cache.getAll(
+            new double[] {1, 2, 2},
+            new double[] {1, 2, 2},
+            (lats, lons) -> {
+              lookups.add(lats);
+              return pending;
+            });
+    final var second =
+        cache.getAll(
+            new double[] {2},
+            new double[] {2},
+            (lats, lons) -> {
+              lookups.add(lats);
+              return CompletableFuture.completedFuture(List.of("State"));
+            });
+    pending.complete(List.of("Federal"));
+
+    Assertions.assertThat(first.join()).containsExactly("Cached", "Federal", "Federal");
+    Assertions.assertThat(second.join()).containsExactly("Federal");
+    Assertions.assertThat(lookups).hasSize(1);
+    Assertions.assertThat(lookups.get(0)).containsExactly(2);
+  }
+
+  @Test
+  public void survivesRestart() {
+    final var file = dir.resolve("cache.tsv").toString();
+    final var cache = new OwnershipCache(10, 4, file, new SimpleMeterRegistry());
+    lookUp(cache, 38.90, -121.05, "Federal");
+    cache.persist();
+
+    final var restarted = new OwnershipCache(10, 4, file, new SimpleMeterRegistry());
+
+    Assertions.assertThat(restarted.size()).isEqualTo(1);
+    Assertions.assertThat(lookUp(restarted, 38.90, -121.05, "State")).isEqualTo("Federal");
+  }
+
+  @Test
+  public void discardsFileWrittenWithOtherDecimals() {
+    final var file = dir.resolve("cache.tsv").toString();
+    final var cache = new OwnershipCache(10, 4, file, new SimpleMeterRegistry());
+    lookUp(cache, 38.90, -121.05, "Federal");
+    cache.persist();
+
+    final var restarted = new OwnershipCache(10, 2, file, new SimpleMeterRegistry());
+
+    Assertions.assertThat(restarted.size()).isZero();
+  }
+
+  @Test
+  public void persistsOnlyWhenOwnersWereAdded() throws Exception {
+    final var file = dir.resolve("cache.tsv");
+    final var cache = new OwnershipCache(10, 4, file.toString(), new SimpleMeterRegistry());
+    lookUp(cache, 38.90, -121.05, "Federal");
+    cache.persist();
+    Files.delete(file);
+
+    cache.persist();
+    Assertions.assertThat(file).doesNotExist();
+
+    lookUp(cache, 38.95, -121.05, "State");
+    cache.persist();
+    Assertions.assertThat(file).exists();
+  }
+
+  /** The owner of one coordinate, answering a miss with {@code owner}. */
+  private String lookUp(OwnershipCache cache, double lat, double lon, String owner) {
+    return cache
+        .getAll(
+            new double[] {lat},
+            new double[] {lon},
+            (lats, lons) -> {
+              lookupCalls.incrementAndGet();
+              return CompletableFuture.completedFuture(List.of(owner));
+            })
+        .join()
+        .get(0);
+  }
+}
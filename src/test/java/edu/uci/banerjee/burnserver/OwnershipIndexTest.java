@@ -0,0 +1,48 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.services.OwnershipIndex;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Path;
+
+public class OwnershipIndexTest {
+  private OwnershipIndex index;
+
+  @BeforeEach
+  void initialize() throws Exception {
+    final var file = Path.of(getClass().getResource("/ownership-sample.geojson").toURI());
+    index = new OwnershipIndex(file.toString());
+  }
+
+  @Test
+  public void loadsPolygonsAndMultiPolygons() {
+    Assertions.assertThat(index.isLoaded()).isTrue();
+    Assertions.assertThat(index.size()).isEqualTo(3);
+  }
+
+  @Test
+  public void findOwnerInsidePolygon() {
+    Assertions.assertThat(index.findOwner(38.90, -121.05)).contains("Federal");
+    Assertions.assertThat(index.findOwner(36.05, -119.45)).contains("State");
+    Assertions.assertThat(index.findOwner(34.03, -117.95)).contains("State");
+  }
+
+  @Test
+  public void findOwnerInsideHoleIsEmpty() {
+    Assertions.assertThat(index.findOwner(38.86, -121.05)).isEmpty();
+  }
+
+  @Test
+  public void findOwnerOutsideAllPolygonsIsEmpty() {
+    Assertions.assertThat(index.findOwner(40.73, -73.93)).isEmpty();
+    Assertions.assertThat(index.findOwner(34.09, -117.99)).isEmpty();
+  }
+
+  @Test
+  public void missingFileLeavesIndexEmpty() throws Exception {
+    Assertions.assertThat(new OwnershipIndex("").isLoaded()).isFalse();
+    Assertions.assertThat(new OwnershipIndex("/does/not/exist.geojson").isLoaded()).isFalse();
+  }
+}
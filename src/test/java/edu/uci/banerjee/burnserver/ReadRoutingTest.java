@@ -0,0 +1,51 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FireFilter;
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.UUID;
+
+// Both pools connect to the same in-memory database, standing in for a primary and its replica.
+@SpringBootTest(
+    properties = {
+      "spring.datasource.url=jdbc:h2:mem:routing;DB_CLOSE_DELAY=-1",
+      "burn.datasource.read.enabled=true",
+      "burn.ownership.remote-fallback=false"
+    })
+public class ReadRoutingTest {
+  @Autowired private FiresRepo repo;
+
+  @Autowired private MeterRegistry registry;
+
+  @Test
+  public void readsUseTheReadPoolAndWritesTheWritePool() {
+    final var fire = new Fire();
+    fire.setName(UUID.randomUUID().toString());
+    fire.setYear(2021);
+    fire.setLatitude(38.9);
+    fire.setLongitude(-121.05);
+
+    final long writes = acquisitions("write");
+    final long reads = acquisitions("read");
+    repo.save(fire);
+    Assertions.assertThat(acquisitions("write")).isGreaterThan(writes);
+    Assertions.assertThat(acquisitions("read")).isEqualTo(reads);
+
+    final var filter = new FireFilter();
+    filter.setStartYear(2021);
+    Assertions.assertThat(repo.findByFilter(filter))
+        .extracting(Fire::getName)
+        .contains(fire.getName());
+    Assertions.assertThat(acquisitions("read")).isGreaterThan(reads);
+  }
+
+  private long acquisitions(String pool) {
+    return registry.get("hikaricp.connections.acquire").tag("pool", pool).timer().count();
+  }
+}
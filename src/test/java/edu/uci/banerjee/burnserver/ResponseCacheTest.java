@@ -0,0 +1,126 @@
+package edu.uci.banerjee.burnserver;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import edu.uci.banerjee.burnserver.services.DatasetVersion;
+import edu.uci.banerjee.burnserver.services.FiresSavedEvent;
+import edu.uci.banerjee.burnserver.services.ResponseCache;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class ResponseCacheTest {
+  private JdbcTemplate jdbc;
+
+  @BeforeEach
+  void initialize() {
+    jdbc = Mockito.mock(JdbcTemplate.class);
+    Mockito.when(jdbc.queryForObject("SELECT version FROM dataset_version", Long.class))
+        .thenReturn(7L);
+  }
+
+  @Test
+  public void repeatedKeyIsServedFromCache() {
+    final var cache = cache(1024);
+    final var computed = new AtomicInteger();
+
+    cache.get("statistics", () -> List.of(computed.incrementAndGet()));
+    final var json = cache.get("statistics", () -> List.of(computed.incrementAndGet())).getBody();
+
+    Assertions.assertThat(new String(json)).isEqualTo("[1]");
+    Assertions.assertThat(computed).hasValue(1);
+  }
+
+  @Test
+  public void savedFiresDropEntries() {
+    final var cache = cache(1024);
+    cache.get("statistics", () -> 1);
+
+    cache.onFiresSaved(new FiresSavedEvent(List.of()));
+
+    Assertions.assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void etagFollowsPersistedDatasetVersion() {
+    final var cache = cache(1024);
+    Assertions.assertThat(cache.etag()).isEqualTo("\"7\"");
+    Assertions.assertThat(cache.get("statistics", () -> 1).getEtag()).isEqualTo("\"7\"");
+
+    cache.onFiresSaved(new FiresSavedEvent(List.of()));
+
+    Assertions.assertThat(cache.etag()).isEqualTo("\"8\"");
+    Assertions.assertThat(cache.get("statistics", () -> 1).getEtag()).isEqualTo("\"8\"");
+    Mockito.verify(jdbc).update("UPDATE dataset_version SET version = ? WHERE version < ?", 8L, 8L);
+
+    Mockito.when(jdbc.queryForObject("SELECT version FROM dataset_version", Long.class))
+        .thenReturn(8L);
+    Assertions.assertThat(cache(1024).etag()).isEqualTo("\"8\"");
+  }
+
+  @Test
+  public void uncachedAnswersKeepTheirEtag() {
+    final var cache = cache(1);
+
+    Assertions.assertThat(cache.get("statistics", () -> "1234").getEtag())
+        .isEqualTo(cache.etag());
+    Assertions.assertThat(cache.size()).isZero();
+  }
+
+  @Test
+  public void concurrentMissesComputeOnce() throws Exception {
+    final var cache = cache(1024);
+    final var computed = new AtomicInteger();
+    final var started = new CountDownLatch(1);
+    final var release = new CountDownLatch(1);
+
+    final var first =
+        CompletableFuture.supplyAsync(
+            () ->
+                cache.get(
+                    "statistics",
+                    () -> {
+                      started.countDown();
+                      try {
+                        release.await();
+                      } catch (InterruptedException e) {
+                        throw new IllegalStateException(e);
+                      }
+                      return computed.incrementAndGet();
+                    }));
+    started.await();
+    final var second =
+        CompletableFuture.supplyAsync(
+            () -> cache.get("statistics", () -> computed.incrementAndGet()));
+    release.countDown();
+
+    Assertions.assertThat(new String(first.get().getBody())).isEqualTo("1");
+    Assertions.assertThat(new String(second.get().getBody())).isEqualTo("1");
+    Assertions.assertThat(computed).hasValue(1);
+  }
+
+  @Test
+  public void evictsLeastRecentlyUsedPastByteLimit() {
+    final var cache = cache(10);
+    cache.get("a", () -> "1234");
+    cache.get("b", () -> "1234");
+    cache.get("a", () -> "1234");
+    cache.get("c", () -> "1234");
+
+    Assertions.assertThat(cache.size()).isEqualTo(1);
+    Assertions.assertThat(new String(cache.get("c", () -> "other").getBody()))
+        .isEqualTo("\"1234\"");
+  }
+
+  private ResponseCache cache(long maxBytes) {
+    return new ResponseCache(
+        new ObjectMapper(), new DatasetVersion(jdbc), maxBytes, new SimpleMeterRegistry());
+  }
+}
@@ -0,0 +1,92 @@
+package edu.uci.banerjee.burnserver;
+
+import org.assertj.core.api.Assertions;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+public class SchemaMigrationTest {
+
+  @Test
+  public void schemaCreatedByHibernateIsBaselinedAndMigrated() {
+    final var dataSource = dataSource("baseline");
+    final var jdbc = new JdbcTemplate(dataSource);
+    // A fire with a 0-based March, loaded twice.
+    createHibernateSchema(jdbc);
+    insertFire(jdbc, 2);
+    insertFire(jdbc, 2);
+
+    migrate(dataSource);
+
+    Assertions.assertThat(jdbc.queryForObject("SELECT month FROM fires", Integer.class))
+        .isEqualTo(3);
+    // The newer load keeps the key and the older one is set aside, not deleted.
+    Assertions.assertThat(jdbc.queryForList("SELECT id FROM fires", Integer.class))
+        .containsExactly(2);
+    Assertions.assertThat(
+            jdbc.queryForObject("SELECT COUNT(natural_key) FROM fires", Integer.class))
+        .isEqualTo(1);
+    Assertions.assertThat(jdbc.queryForList("SELECT id FROM fires_duplicates", Integer.class))
+        .containsExactly(1);
+    Assertions.assertThat(
+            jdbc.queryForObject("SELECT COUNT(*) FROM fire_archive_statistics", Integer.class))
+        .isZero();
+    Assertions.assertThat(
+            jdbc.queryForObject(
+                "SELECT COUNT(*) FROM fires WHERE spatial_key IS NULL", Integer.class))
+        .isZero();
+    // The sequence continues after the identity ids the old rows were given.
+    Assertions.assertThat(jdbc.queryForObject("SELECT NEXT VALUE FOR fires_seq", Long.class))
+        .isEqualTo(3);
+  }
+
+  @Test
+  public void monthsThatAreAlreadyOneBasedAreNotShifted() {
+    final var dataSource = dataSource("one-based");
+    final var jdbc = new JdbcTemplate(dataSource);
+    createHibernateSchema(jdbc);
+    insertFire(jdbc, 3);
+    insertFire(jdbc, 12);
+
+    migrate(dataSource);
+
+    Assertions.assertThat(jdbc.queryForList("SELECT month FROM fires ORDER BY id", Integer.class))
+        .containsExactly(3, 12);
+  }
+
+  private static DataSource dataSource(String name) {
+    return new DriverManagerDataSource("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1", "sa", "");
+  }
+
+  // What ddl-auto=update created before Flyway.
+  private static void createHibernateSchema(JdbcTemplate jdbc) {
+    jdbc.execute(
+        "CREATE TABLE fires (id INTEGER GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, "
+            + "acres DOUBLE NOT NULL, burn_type VARCHAR(255), treatment_type VARCHAR(255), "
+            + "county_unit_id VARCHAR(255), county VARCHAR(255), latitude DOUBLE NOT NULL, "
+            + "longitude DOUBLE NOT NULL, name VARCHAR(255), source VARCHAR(255), "
+            + "year INTEGER NOT NULL, month INTEGER, day INTEGER, owner VARCHAR(255), "
+            + "severity DOUBLE, escaped BOOLEAN)");
+    jdbc.execute("CREATE INDEX yearIndex ON fires (year)");
+  }
+
+  private static void insertFire(JdbcTemplate jdbc, int month) {
+    jdbc.update(
+        "INSERT INTO fires (acres, latitude, longitude, name, year, month, day) "
+            + "VALUES (12.5, 38.9, -121.05, 'old', 2015, ?, 14)",
+        month);
+  }
+
+  private static void migrate(DataSource dataSource) {
+    Flyway.configure()
+        .dataSource(dataSource)
+        .locations("classpath:db/migration", "classpath:edu/uci/banerjee/burnserver/migration")
+        .baselineOnMigrate(true)
+        .baselineVersion("1")
+        .load()
+        .migrate();
+  }
+}
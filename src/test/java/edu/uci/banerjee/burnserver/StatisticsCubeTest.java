@@ -0,0 +1,166 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.model.Fire;
+import edu.uci.banerjee.burnserver.model.FireFilter;
+import edu.uci.banerjee.burnserver.model.FiresRepo;
+import edu.uci.banerjee.burnserver.model.StatisticsCell;
+import edu.uci.banerjee.burnserver.services.FireChangeLock;
+import edu.uci.banerjee.burnserver.services.FiresSavedEvent;
+import edu.uci.banerjee.burnserver.services.FiresUpdatedEvent;
+import edu.uci.banerjee.burnserver.services.PrimaryReads;
+import edu.uci.banerjee.burnserver.services.StatisticsCube;
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+
+import java.util.List;
+
+public class StatisticsCubeTest {
+  private FiresRepo repo;
+  private StatisticsCube cube;
+
+  @BeforeEach
+  void initialize() {
+    repo = Mockito.mock(FiresRepo.class);
+    Mockito.when(repo.statisticsCells())
+        .thenReturn(
+            List.of(
+                new StatisticsCell(
+                    "CALFIRE", "Modesto", "Hand Pile", null, 2010, 12, "Private", false, 2L, 10.0,
+                    4.0, 6.0),
+                new StatisticsCell(
+                    "USFS", "Butte", "Broadcast", null, 2015, 3, "Federal", true, 1L, 100.0,
+                    100.0, 100.0)));
+    cube = new StatisticsCube(repo, new FireChangeLock(), new PrimaryReads(), true);
+    cube.afterSingletonsInstantiated();
+  }
+
+  @Test
+  public void unfilteredCoversAllCells() {
+    final var stats = cube.statistics(new FireFilter()).orElseThrow();
+
+    Assertions.assertThat(stats.getNumFires()).isEqualTo(3);
+    Assertions.assertThat(stats.getTotalAcres()).isEqualTo(110.0);
+    Assertions.assertThat(stats.getMinSize()).isEqualTo(4.0);
+    Assertions.assertThat(stats.getMaxSize()).isEqualTo(100.0);
+    Assertions.assertThat(stats.getMinYear()).isEqualTo(2010);
+    Assertions.assertThat(stats.getMaxYear()).isEqualTo(2015);
+    Assertions.assertThat(stats.getEscapedRatio()).isEqualTo(1.0 / 3);
+  }
+
+  @Test
+  public void filtersOnDimensions() {
+    final var filter = new FireFilter();
+    filter.setCounty("Mod");
+    filter.setStartYear(2005);
+
+    final var stats = cube.statistics(filter).orElseThrow();
+
+    Assertions.assertThat(stats.getNumFires()).isEqualTo(2);
+    Assertions.assertThat(stats.getFiresByCounty()).containsOnlyKeys("Modesto");
+  }
+
+  @Test
+  public void unsupportedFiltersFallBack() {
+    final var filter = new FireFilter();
+    filter.setMinAcres(5.0);
+
+    Assertions.assertThat(cube.statistics(filter)).isEmpty();
+  }
+
+  @Test
+  public void savedFiresAreAddedIncrementally() {
+    final var fire =
+        new Fire(
+            50.0, "Broadcast", null, "BTU", "Butte", 39.7, -121.6, "Camp", "USFS", 2015, 3, 1,
+            "Federal", null, true);
+    cube.onFiresSaved(new FiresSavedEvent(List.of(fire)));
+
+    final var filter = new FireFilter();
+    filter.setSource("USFS");
+    final var stats = cube.statistics(filter).orElseThrow();
+
+    Assertions.assertThat(stats.getNumFires()).isEqualTo(2);
+    Assertions.assertThat(stats.getMinSize()).isEqualTo(50.0);
+    Assertions.assertThat(stats.getEscapedRatio()).isEqualTo(1.0);
+  }
+
+  @Test
+  public void updatedFiresMoveBetweenCells() {
+    final var previous =
+        new Fire(
+            100.0, "Broadcast", null, "BTU", "Butte", 39.7, -121.6, "Camp", "USFS", 2015, 3, 1,
+            "Federal", null, true);
+    final var fire =
+        new Fire(
+            100.0, "Broadcast", null, "BTU", "Butte", 39.7, -121.6, "Camp", "USFS", 2015, 3, 1,
+            "Private", null, true);
+    cube.onFiresUpdated(new FiresUpdatedEvent(List.of(fire), List.of(previous)));
+
+    final var federal = new FireFilter();
+    federal.setOwner("Federal");
+    final var owned = new FireFilter();
+    owned.setOwner("Private");
+
+    Assertions.assertThat(cube.statistics(federal).orElseThrow().getNumFires()).isZero();
+    Assertions.assertThat(cube.statistics(owned).orElseThrow().getNumFires()).isEqualTo(3);
+    Mockito.verify(repo, Mockito.times(1)).statisticsCells();
+    Mockito.verify(repo, Mockito.never())
+        .statisticsCell(
+            Mockito.any(),
+            Mockito.any(),
+            Mockito.any(),
+            Mockito.any(),
+            Mockito.any(),
+            Mockito.any(),
+            Mockito.any(),
+            Mockito.any());
+  }
+
+  @Test
+  public void updatesRemovingTheSmallestFireRecomputeOnlyItsCell() {
+    final var previous =
+        new Fire(
+            4.0, "Hand Pile", null, "TCU", "Modesto", 37.6, -121.0, "Pile", "CALFIRE", 2010, 12, 1,
+            "Private", null, false);
+    final var fire =
+        new Fire(
+            4.0, "Hand Pile", null, "TCU", "Modesto", 37.6, -121.0, "Pile", "CALFIRE", 2010, 12, 1,
+            "State", null, false);
+    Mockito.when(
+            repo.statisticsCell(
+                "CALFIRE", "Modesto", "Hand Pile", null, 2010, 12, "Private", false))
+        .thenReturn(
+            new StatisticsCell(
+                "CALFIRE", "Modesto", "Hand Pile", null, 2010, 12, "Private", false, 1L, 6.0, 6.0,
+                6.0));
+    cube.onFiresUpdated(new FiresUpdatedEvent(List.of(fire), List.of(previous)));
+
+    final var filter = new FireFilter();
+    filter.setOwner("Private");
+    final var stats = cube.statistics(filter).orElseThrow();
+
+    Assertions.assertThat(stats.getNumFires()).isEqualTo(1);
+    Assertions.assertThat(stats.getMinSize()).isEqualTo(6.0);
+    Assertions.assertThat(cube.statistics(new FireFilter()).orElseThrow().getNumFires())
+        .isEqualTo(3);
+    Mockito.verify(repo, Mockito.times(1)).statisticsCells();
+  }
+
+  @Test
+  public void repositoryChangesRebuildOnNextRead() {
+    cube.onRepositoryChange();
+    Mockito.when(repo.statisticsCells())
+        .thenReturn(
+            List.of(
+                new StatisticsCell(
+                    "USFS", "Butte", "Broadcast", null, 2015, 3, "Federal", true, 1L, 100.0,
+                    100.0, 100.0)));
+
+    final var stats = cube.statistics(new FireFilter()).orElseThrow();
+
+    Assertions.assertThat(stats.getNumFires()).isEqualTo(1);
+    Mockito.verify(repo, Mockito.times(2)).statisticsCells();
+  }
+}
@@ -0,0 +1,34 @@
+package edu.uci.banerjee.burnserver;
+
+import edu.uci.banerjee.burnserver.controller.TilesController;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+public class TilesControllerTest {
+  @Autowired private WebApplicationContext webApplicationContext;
+
+  @Test
+  public void worldTileExists() throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    mockMvc
+        .perform(get("/tiles/0/0/0"))
+        .andExpect(status().isOk())
+        .andExpect(content().contentType(TilesController.TILE_MEDIA_TYPE));
+  }
+
+  @Test
+  public void tileOutsideZoomLevelNotFound() throws Exception {
+    MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+    mockMvc.perform(get("/tiles/1/2/0")).andExpect(status().isNotFound());
+    mockMvc.perform(get("/tiles/23/0/0")).andExpect(status().isNotFound());
+  }
+}
@@ -0,0 +1,34 @@
+package edu.uci.banerjee.burnserver.model;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FieldHashTest {
+  @Test
+  public void sameValuesHashTheSame() {
+    final var hash = new FieldHash();
+    hash.reset().add("Broadcast").add(2020).add((Integer) 3).add(38.9).finish();
+    final long high = hash.high();
+    final long low = hash.low();
+
+    hash.reset().add("Broadcast").add(2020).add((Integer) 3).add(38.9).finish();
+
+    Assertions.assertThat(hash.high()).isEqualTo(high);
+    Assertions.assertThat(hash.low()).isEqualTo(low);
+  }
+
+  @Test
+  public void valuesDoNotRunTogether() {
+    final var hash = new FieldHash();
+    Assertions.assertThat(high(hash.reset().add("ab").add("c")))
+        .isNotEqualTo(high(hash.reset().add("a").add("bc")));
+    Assertions.assertThat(high(hash.reset().add((String) null).add("")))
+        .isNotEqualTo(high(hash.reset().add("").add((String) null)));
+    Assertions.assertThat(high(hash.reset().add((Integer) null).add((Integer) 0)))
+        .isNotEqualTo(high(hash.reset().add((Integer) 0).add((Integer) null)));
+  }
+
+  private static long high(FieldHash hash) {
+    return hash.finish().high();
+  }
+}
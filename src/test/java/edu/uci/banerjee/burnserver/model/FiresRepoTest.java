@@ -1,16 +1,25 @@
 package edu.uci.banerjee.burnserver.model;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
-@DataJpaTest
+@DataJpaTest(
+    properties = {
+      "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+          + "edu.uci.banerjee.burnserver.model.FiresRepoTest$SqlRecorder",
+      "spring.jpa.properties.hibernate.criteria.literal_handling_mode=INLINE"
+    })
 public class FiresRepoTest {
   @Autowired private FiresRepo repo;
+  @Autowired private TestEntityManager entityManager;
 
   private Fire fire;
 
@@ -136,4 +145,146 @@ public class FiresRepoTest {
     Assertions.assertThat(firesList.size()).isGreaterThan(0);
     Assertions.assertThat(firesList.size()).isEqualTo(1);
   }
+
+  @Test
+  void filterStatistics() {
+    FireFilter filter = new FireFilter();
+    filter.setSource("CALFIRE");
+    Statistics stats = Statistics.of(repo.filterStatistics(filter));
+    Assertions.assertThat(stats.getNumFires()).isEqualTo(1);
+    Assertions.assertThat(stats.getTotalAcres()).isEqualTo(0.05);
+    Assertions.assertThat(stats.getMinYear()).isEqualTo(2010);
+    Assertions.assertThat(stats.getEscapedRatio()).isEqualTo(0.0);
+    Assertions.assertThat(stats.getFiresByYear()).containsEntry(2010, 1L);
+    Assertions.assertThat(stats.getFiresByCounty()).containsEntry("Modesto", 1L);
+  }
+
+  @Test
+  void filterStatisticsEmpty() {
+    FireFilter filter = new FireFilter();
+    filter.setSource("NONE");
+    Statistics stats = Statistics.of(repo.filterStatistics(filter));
+    Assertions.assertThat(stats.getNumFires()).isEqualTo(0);
+    Assertions.assertThat(stats.getMinYear()).isNull();
+    Assertions.assertThat(stats.getAvgSize()).isNull();
+  }
+
+  @Test
+  void findByBoundingBox() {
+    FireFilter filter = new FireFilter();
+    filter.setWest(-121.5);
+    filter.setSouth(38.5);
+    filter.setEast(-120.5);
+    filter.setNorth(39.5);
+    Assertions.assertThat(repo.findByFilter(filter)).hasSize(1);
+
+    filter.setWest(-120.0);
+    filter.setEast(-119.0);
+    Assertions.assertThat(repo.findByFilter(filter)).isEmpty();
+  }
+
+  @Test
+  void findByCountyPrefix() {
+    FireFilter filter = new FireFilter();
+    filter.setCounty("Mod");
+    Assertions.assertThat(repo.findByFilter(filter)).hasSize(1);
+
+    filter.setCounty("odesto");
+    Assertions.assertThat(repo.findByFilter(filter)).isEmpty();
+  }
+
+  @Test
+  void findPageByFilter() {
+    FireFilter filter = new FireFilter();
+    Assertions.assertThat(repo.findPageByFilter(filter, null, 10)).hasSize(1);
+    Assertions.assertThat(repo.findPageByFilter(filter, fire.getId(), 10)).isEmpty();
+  }
+
+  @Test
+  void findBySeverityRange() {
+    FireFilter filter = new FireFilter();
+    filter.setMinSeverity(10.0);
+    filter.setMaxSeverity(20.0);
+    filter.setSource("CALFIRE");
+    Assertions.assertThat(repo.findByFilter(filter)).hasSize(1);
+    Assertions.assertThat(Statistics.of(repo.filterStatistics(filter)).getNumFires()).isEqualTo(1);
+
+    filter.setMinSeverity(10.5);
+    Assertions.assertThat(repo.findByFilter(filter)).isEmpty();
+    Assertions.assertThat(Statistics.of(repo.filterStatistics(filter)).getNumFires()).isEqualTo(0);
+  }
+
+  // Each filter is explained with the SQL Hibernate generates for it; none may scan the table.
+  @Test
+  void explainCountyPrefixUsesIndex() {
+    final var filter = new FireFilter();
+    filter.setCounty("Mod");
+    Assertions.assertThat(explain(filter)).doesNotContainIgnoringCase("tableScan");
+  }
+
+  @Test
+  void explainSourceAndYearUsesIndex() {
+    final var filter = new FireFilter();
+    filter.setSource("CALFIRE");
+    filter.setStartYear(2000);
+    Assertions.assertThat(explain(filter)).doesNotContainIgnoringCase("tableScan");
+  }
+
+  @Test
+  void explainYearAndMonthUsesIndex() {
+    final var filter = new FireFilter();
+    filter.setStartYear(2000);
+    filter.setEndYear(2020);
+    filter.setStartMonth(3);
+    Assertions.assertThat(explain(filter)).doesNotContainIgnoringCase("tableScan");
+  }
+
+  @Test
+  void explainBoundingBoxUsesIndex() {
+    final var filter = new FireFilter();
+    filter.setWest(-122.0);
+    filter.setSouth(38.0);
+    filter.setEast(-121.0);
+    filter.setNorth(39.0);
+    Assertions.assertThat(explain(filter)).doesNotContainIgnoringCase("tableScan");
+  }
+
+  @Test
+  void explainSeverityRangeUsesIndex() {
+    final var filter = new FireFilter();
+    filter.setMinSeverity(1.5);
+    filter.setMaxSeverity(3.0);
+    Assertions.assertThat(explain(filter)).doesNotContainIgnoringCase("tableScan");
+  }
+
+  /** The plan of the query {@link FiresRepo#findByFilter} runs for {@code filter}. */
+  private String explain(FireFilter filter) {
+    SqlRecorder.STATEMENTS.clear();
+    repo.findByFilter(filter);
+    final var sql =
+        SqlRecorder.STATEMENTS.stream()
+            .filter(query -> query.startsWith("select") && query.contains(" from fires "))
+            .reduce((first, last) -> last)
+            .orElseThrow();
+
+    return entityManager
+        .getEntityManager()
+        .createNativeQuery("EXPLAIN " + sql)
+        .getSingleResult()
+        .toString();
+  }
+
+  /**
+   * Records the SQL of every statement Hibernate prepares. The criteria literals are inlined for
+   * these tests, so the recorded query can be explained without its parameters.
+   */
+  public static class SqlRecorder implements StatementInspector {
+    static final List<String> STATEMENTS = new CopyOnWriteArrayList<>();
+
+    @Override
+    public String inspect(String sql) {
+      STATEMENTS.add(sql);
+      return sql;
+    }
+  }
 }
@@ -0,0 +1,61 @@
+package edu.uci.banerjee.burnserver.model;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+public class SpatialKeyTest {
+  @Test
+  public void rangesHoldEveryPointInTheBox() {
+    final var random = new Random(42);
+    final double south = 38.5, west = -121.5, north = 39.5, east = -120.5;
+    final var ranges = SpatialKey.ranges(south, west, north, east);
+
+    for (int i = 0; i < 10_000; i++) {
+      final double lat = south + random.nextDouble() * (north - south);
+      final double lon = west + random.nextDouble() * (east - west);
+      Assertions.assertThat(contains(ranges, SpatialKey.of(lat, lon))).isTrue();
+    }
+    Assertions.assertThat(contains(ranges, SpatialKey.of(south, west))).isTrue();
+    Assertions.assertThat(contains(ranges, SpatialKey.of(north, east))).isTrue();
+  }
+
+  @Test
+  public void rangesAreSortedDisjointAndCapped() {
+    final var ranges = SpatialKey.ranges(32, -125, 42, -114, 8);
+
+    Assertions.assertThat(ranges).hasSizeBetween(1, 8);
+    for (int i = 1; i < ranges.size(); i++)
+      Assertions.assertThat(ranges.get(i)[0]).isGreaterThan(ranges.get(i - 1)[1] + 1);
+  }
+
+  // A box around the origin straddles the top level quadrants, where one range from the
+  // smallest to the largest key spans half of all keys.
+  @Test
+  public void boxAcrossQuadrantsSkipsMostKeys() {
+    final var ranges = SpatialKey.ranges(-1, -1, 1, 1);
+    final long single = SpatialKey.of(1, 1) - SpatialKey.of(-1, -1) + 1;
+
+    Assertions.assertThat(keys(ranges)).isLessThan(single / 1000);
+  }
+
+  @Test
+  public void emptyBoxHasNoRanges() {
+    Assertions.assertThat(SpatialKey.ranges(39, -120, 38, -121)).isEmpty();
+  }
+
+  private static boolean contains(List<long[]> ranges, long key) {
+    for (long[] range : ranges) {
+      if (key >= range[0] && key <= range[1]) return true;
+    }
+    return false;
+  }
+
+  private static long keys(List<long[]> ranges) {
+    long keys = 0;
+    for (long[] range : ranges) keys += range[1] - range[0] + 1;
+    return keys;
+  }
+}
@@ -0,0 +1,40 @@
+package edu.uci.banerjee.burnserver.model;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class ValueDictionaryTest {
+  @Test
+  public void equalValuesShareInstance() {
+    final var first = ValueDictionary.intern(new String("Placer"));
+    final var second = ValueDictionary.intern(new String("Placer"));
+
+    Assertions.assertThat(second).isSameAs(first);
+    Assertions.assertThat(ValueDictionary.intern(null)).isNull();
+  }
+
+  @Test
+  public void fireSettersIntern() {
+    final var a = new Fire();
+    final var b = new Fire();
+    a.setCounty(new String("Nevada"));
+    b.setCounty(new String("Nevada"));
+    a.setOwner(new String("Federal"));
+    b.setOwner(new String("Federal"));
+
+    Assertions.assertThat(b.getCounty()).isSameAs(a.getCounty());
+    Assertions.assertThat(b.getOwner()).isSameAs(a.getOwner());
+  }
+
+  @Test
+  public void loadedFiresIntern() throws Exception {
+    final var fire = new Fire();
+    final var county = Fire.class.getDeclaredField("county");
+    county.setAccessible(true);
+    county.set(fire, new String("Sierra"));
+
+    fire.internColumns();
+
+    Assertions.assertThat(fire.getCounty()).isSameAs(ValueDictionary.intern("Sierra"));
+  }
+}
@@ -0,0 +1,44 @@
+package edu.uci.banerjee.burnserver.services;
+
+import org.assertj.core.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FastParsersTest {
+  @Test
+  public void parseDoubleMatchesJdk() {
+    for (String value :
+        new String[] {
+          "0", "-0", "12.5", "0.05", "-121.123456", "38.901", "1.", "+7", "007.250",
+          "123456789012345", "1234567890.123456789", "1e3", " 4.5 ", "0.1234567890123456789012345"
+        })
+      Assertions.assertThat(FastParsers.parseDouble(value))
+          .as(value)
+          .isEqualTo(Double.parseDouble(value));
+  }
+
+  @Test
+  public void parseDoubleRejectsWhatJdkRejects() {
+    Assertions.assertThatThrownBy(() -> FastParsers.parseDouble("12,5"))
+        .isInstanceOf(NumberFormatException.class);
+    Assertions.assertThatThrownBy(() -> FastParsers.parseDouble(""))
+        .isInstanceOf(NumberFormatException.class);
+  }
+
+  @Test
+  public void parseIsoDateHasOneBasedMonths() {
+    Assertions.assertThat(FastParsers.parseIsoDate("2020-01-05")).isEqualTo(20200105);
+    Assertions.assertThat(FastParsers.parseIsoDate("2020-12-31")).isEqualTo(20201231);
+    Assertions.assertThat(FastParsers.parseIsoDate("2020-2-9")).isEqualTo(20200209);
+    Assertions.assertThat(FastParsers.parseIsoDate("2016-02-29T10:00:00")).isEqualTo(20160229);
+  }
+
+  @Test
+  public void parseIsoDateRejectsInvalidDates() {
+    for (String value :
+        new String[] {
+          "", "2020", "2020-13-01", "2019-02-29", "2020-01-00", "20-01-01", "01/05/2020"
+        })
+      Assertions.assertThat(FastParsers.parseIsoDate(value)).as(value).isEqualTo(-1);
+    Assertions.assertThat(FastParsers.parseIsoDate(null)).isEqualTo(-1);
+  }
+}